@@ -0,0 +1,4 @@
+#!/bin/sh
+# POSTGRES_USER is a superuser, so it may open replication connections once pg_hba allows them.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,30 @@
+#!/usr/bin/env sh
+# Runs the same read workload through the blocking JPA endpoints and the R2DBC endpoints of one
+# running instance, with both pools shrunk to POOL connections, and writes a JSON report per stack.
+#
+# Needs a seeded PostgreSQL reachable with the usual DB_* variables (docker compose up db).
+#   POOL=4 CONCURRENCY=1000 DURATION=60 ./loadtest/compare-blocking-reactive.sh
+set -eu
+
+POOL=${POOL:-4}
+CONCURRENCY=${CONCURRENCY:-1000}
+DURATION=${DURATION:-60}
+PORT=${PORT:-8080}
+OUT=build/reports/loadtest
+mkdir -p "$OUT"
+
+./gradlew -q bootJar loadtestClasses
+
+java -jar build/libs/app.jar --server.port="$PORT" \
+  --spring.datasource.hikari.maximum-pool-size="$POOL" --app.reactive.pool-size="$POOL" \
+  > "$OUT/app-blocking-reactive.log" 2>&1 &
+app=$!
+trap 'kill "$app"' EXIT
+until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+for scenario in read reactive-read; do
+  echo "== $scenario"
+  ./gradlew -q loadTest -Pargs="baseUrl=http://localhost:$PORT scenario=$scenario concurrency=$CONCURRENCY duration=$DURATION out=$OUT/$scenario.json"
+done
+
+echo "Reports: $OUT/read.json $OUT/reactive-read.json"
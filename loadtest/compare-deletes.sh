@@ -0,0 +1,36 @@
+#!/usr/bin/env sh
+# Runs the delete-heavy scenario against the app built from BASE_REF (check-then-delete) and from
+# the working tree (single guarded statement), and writes one JSON report per build.
+#
+# Needs a seeded PostgreSQL reachable with the usual DB_* variables (docker compose up db).
+#   BASE_REF=HEAD~1 CONCURRENCY=200 DURATION=60 ./loadtest/compare-deletes.sh
+set -eu
+
+BASE_REF=${BASE_REF:-HEAD~1}
+CONCURRENCY=${CONCURRENCY:-200}
+DURATION=${DURATION:-60}
+PORT=${PORT:-8080}
+OUT=build/reports/loadtest
+BASE_DIR=build/base-worktree
+mkdir -p "$OUT"
+
+./gradlew -q bootJar loadtestClasses
+rm -rf "$BASE_DIR"
+git worktree add --detach "$BASE_DIR" "$BASE_REF" > /dev/null
+trap 'git worktree remove --force "$BASE_DIR"' EXIT
+(cd "$BASE_DIR" && ./gradlew -q bootJar)
+
+run_build() {
+  name=$1; jar=$2
+  echo "== $name"
+  java -jar "$jar" --server.port="$PORT" > "$OUT/app-deletes-$name.log" 2>&1 &
+  app=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+  ./gradlew -q loadTest -Pargs="baseUrl=http://localhost:$PORT scenario=delete-heavy concurrency=$CONCURRENCY duration=$DURATION out=$OUT/deletes-$name.json"
+  kill "$app"; wait "$app" || true
+}
+
+run_build base "$BASE_DIR/build/libs/app.jar"
+run_build current build/libs/app.jar
+
+echo "Reports: $OUT/deletes-base.json $OUT/deletes-current.json"
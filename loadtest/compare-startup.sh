@@ -0,0 +1,41 @@
+#!/usr/bin/env sh
+# Time to first successful request of the plain jar, of the jar with a CDS archive, and of the
+# AOT-processed jar with a CDS archive (what the Dockerfile builds with FAST_START=true).
+# Writes one JSON report per variant, tagged with the release, to build/reports/startup/.
+#
+# Needs a migrated PostgreSQL reachable with the usual DB_* variables (docker compose up db).
+#   RUNS=5 ./loadtest/compare-startup.sh
+set -eu
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+OUT=build/reports/startup
+WORK=build/startup
+RELEASE=$(git describe --tags --always --dirty 2>/dev/null || echo unknown)
+rm -rf "$WORK"
+mkdir -p "$OUT" "$WORK"
+
+# extracts a jar into $2 and records a CDS archive there from a training run (as in the Dockerfile)
+extract_with_cds() {
+  java -Djarmode=tools -jar "$1" extract --destination "$2"
+  (cd "$2" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+      -Dspring.profiles.active=cds-training $3 -jar app.jar > training.log 2>&1)
+}
+
+./gradlew -q loadtestClasses bootJar
+cp build/libs/app.jar "$WORK/plain.jar"
+extract_with_cds build/libs/app.jar "$WORK/cds" ""
+./gradlew -q -PfastStart bootJar
+extract_with_cds build/libs/app.jar "$WORK/aot-cds" "-Dspring.aot.enabled=true"
+cp "$WORK/plain.jar" build/libs/app.jar
+
+run_variant() {
+  echo "== $1"
+  ./gradlew -q startupBenchmark -Pargs="name=$1 jar=$2 jvmArgs=$3 runs=$RUNS port=$PORT release=$RELEASE out=$OUT/$1.json"
+}
+
+run_variant plain "$WORK/plain.jar" ""
+run_variant cds "$WORK/cds/app.jar" "-XX:SharedArchiveFile=$WORK/cds/app.jsa"
+run_variant aot-cds "$WORK/aot-cds/app.jar" "-XX:SharedArchiveFile=$WORK/aot-cds/app.jsa,-Dspring.aot.enabled=true"
+
+echo "Reports: $OUT/plain.json $OUT/cds.json $OUT/aot-cds.json"
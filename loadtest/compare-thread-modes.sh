@@ -0,0 +1,30 @@
+#!/usr/bin/env sh
+# Runs the same read-mostly load against the app on platform threads and on virtual threads
+# and writes one JSON report per mode to build/reports/loadtest/.
+#
+# Needs a seeded PostgreSQL reachable with the usual DB_* variables (docker compose up db).
+#   CONCURRENCY=400 DURATION=60 ./loadtest/compare-thread-modes.sh
+set -eu
+
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION=${DURATION:-60}
+PORT=${PORT:-8080}
+OUT=build/reports/loadtest
+mkdir -p "$OUT"
+
+./gradlew -q bootJar loadtestClasses
+
+run_mode() {
+  mode=$1; profiles=$2
+  echo "== $mode"
+  SPRING_PROFILES_ACTIVE=$profiles java -jar build/libs/app.jar --server.port="$PORT" > "$OUT/app-$mode.log" 2>&1 &
+  app=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+  ./gradlew -q loadTest -Pargs="baseUrl=http://localhost:$PORT concurrency=$CONCURRENCY duration=$DURATION out=$OUT/$mode.json"
+  kill "$app"; wait "$app" || true
+}
+
+run_mode platform-threads default
+run_mode virtual-threads virtual-threads
+
+echo "Reports: $OUT/platform-threads.json $OUT/virtual-threads.json"
@@ -0,0 +1,30 @@
+#!/usr/bin/env sh
+# Starts the local database and the app built from the working tree, seeds a dataset through the API
+# and runs the production-like mixed workload against it; the JSON report (per-endpoint throughput,
+# latency percentiles, errors and 503s shed by admission control) goes to build/reports/loadtest/.
+#
+# Everything runs locally (docker compose up db); nothing outside this machine is touched.
+#   SEED_LAB_WORKS=50000 CONCURRENCY=100 DURATION=120 ./loadtest/run-mixed.sh
+# SEED=false reuses whatever the database already holds.
+set -eu
+
+SEED=${SEED:-true}
+SEED_LAB_WORKS=${SEED_LAB_WORKS:-10000}
+RANDOM_SEED=${RANDOM_SEED:-42}
+CONCURRENCY=${CONCURRENCY:-100}
+DURATION=${DURATION:-120}
+PORT=${PORT:-8080}
+OUT=build/reports/loadtest
+mkdir -p "$OUT"
+
+docker compose up -d db
+./gradlew -q bootJar loadtestClasses
+
+java -jar build/libs/app.jar --server.port="$PORT" > "$OUT/app-mixed.log" 2>&1 &
+app=$!
+trap 'kill "$app" 2> /dev/null; wait "$app" || true' EXIT
+until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+./gradlew -q loadTest -Pargs="baseUrl=http://localhost:$PORT scenario=mixed seed=$SEED seedLabWorks=$SEED_LAB_WORKS randomSeed=$RANDOM_SEED concurrency=$CONCURRENCY duration=$DURATION out=$OUT/mixed.json"
+
+echo "Report: $OUT/mixed.json"
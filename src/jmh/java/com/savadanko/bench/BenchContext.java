@@ -0,0 +1,111 @@
+package com.savadanko.bench;
+
+import com.savadanko.Main;
+import com.savadanko.domain.*;
+import com.savadanko.repository.LabWorkRowRepository;
+import com.savadanko.service.LabWorkMapper;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JPA layer (entities + repositories) and {@link LabWorkMapper}, no services or web, on an in-memory
+ * H2 database in PostgreSQL mode, seeded with {@link BenchData}. Stands in for PostgreSQL in the
+ * repository benchmarks; absolute numbers differ, relative ones between commits are what count.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan("com.savadanko.domain")
+@EnableJpaRepositories("com.savadanko.repository")
+@Import(LabWorkMapper.class)
+public class BenchContext {
+
+    public static ConfigurableApplicationContext start(int rows) {
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(BenchContext.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench" + rows + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        // the migrations are PostgreSQL-only; the entity @Index annotations mirror them for H2
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        // application.yml relies on OpenApiConfig's filter to keep beans eager; it is not scanned here
+                        "spring.main.lazy-initialization=false",
+                        "logging.level.root=WARN")
+                .run();
+        seed(ctx.getBean(JdbcTemplate.class), BenchData.labWorks(rows, 42));
+        return ctx;
+    }
+
+    /**
+     * The whole application without the web server, on the PostgreSQL database named by the DB_*
+     * environment as in application.yml. For write paths, which rely on PostgreSQL upserts that H2
+     * cannot run; point it at a scratch database, the benchmarks write into it.
+     */
+    public static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+    }
+
+    private static void seed(JdbcTemplate jdbc, List<LabWork> labWorks) {
+        Map<Long, Coordinates> coordinates = new LinkedHashMap<>();
+        Map<Long, Person> persons = new LinkedHashMap<>();
+        Map<Long, Discipline> disciplines = new LinkedHashMap<>();
+        Map<Long, Location> locations = new LinkedHashMap<>();
+        for (LabWork lw : labWorks) {
+            coordinates.put(lw.getCoordinates().getId(), lw.getCoordinates());
+            if (lw.getAuthor() != null) persons.put(lw.getAuthor().getId(), lw.getAuthor());
+            if (lw.getDiscipline() != null) disciplines.put(lw.getDiscipline().getId(), lw.getDiscipline());
+        }
+        persons.values().stream().map(Person::getLocation).filter(Objects::nonNull)
+                .forEach(l -> locations.put(l.getId(), l));
+
+        jdbc.batchUpdate("insert into coordinates (id, x, y) values (?, ?, ?)",
+                coordinates.values().stream().map(c -> new Object[]{c.getId(), c.getX(), c.getY()}).toList());
+        jdbc.batchUpdate("insert into location (id, x, y, name) values (?, ?, ?, ?)",
+                locations.values().stream().map(l -> new Object[]{l.getId(), l.getX(), l.getY(), l.getName()}).toList());
+        jdbc.batchUpdate("""
+                insert into person (id, name, eye_color, hair_color, weight, nationality, location_id)
+                values (?, ?, ?, ?, ?, ?, ?)""",
+                persons.values().stream().map(p -> new Object[]{
+                        p.getId(), p.getName(), name(p.getEyeColor()), name(p.getHairColor()), p.getWeight(),
+                        name(p.getNationality()), p.getLocation() != null ? p.getLocation().getId() : null
+                }).toList());
+        jdbc.batchUpdate("insert into discipline (id, name, practice_hours, labs_count) values (?, ?, ?, ?)",
+                disciplines.values().stream().map(d -> new Object[]{
+                        d.getId(), d.getName(), d.getPracticeHours(), d.getLabsCount()
+                }).toList());
+        jdbc.batchUpdate("""
+                insert into lab_work (id, name, coordinates_id, creation_date, description, difficulty,
+                                      difficulty_rank, minimal_point, author_id, discipline_id)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+                labWorks.stream().map(lw -> new Object[]{
+                        lw.getId(), lw.getName(), lw.getCoordinates().getId(),
+                        Timestamp.from(lw.getCreationDate().toInstant()), lw.getDescription(),
+                        lw.getDifficulty().name(), lw.getDifficultyRank(), lw.getMinimalPoint(),
+                        lw.getAuthor() != null ? lw.getAuthor().getId() : null,
+                        lw.getDiscipline() != null ? lw.getDiscipline().getId() : null
+                }).toList());
+        jdbc.update("insert into lab_work_row (" + LabWorkRowRepository.ROW_COLUMNS + ") "
+                + LabWorkRowRepository.ROW_SELECT);
+    }
+
+    private static String name(Enum<?> e) {
+        return e != null ? e.name() : null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.savadanko.bench;
+
+import com.savadanko.domain.*;
+import com.savadanko.domain.dto.LabWorkDTO;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic in-memory LabWork graphs for the benchmarks. Persons, disciplines and
+ * coordinates are shared between lab works the way they are in a real table.
+ */
+public final class BenchData {
+
+    private static final String DESCRIPTION =
+            "Implement the assignment, measure it and write up the results. ".repeat(8);
+
+    private BenchData() {}
+
+    public static List<LabWorkDTO> labWorkDtos(int rows, long seed) {
+        return labWorks(rows, seed).stream()
+                .map(lw -> new LabWorkDTO(
+                        lw.getId(), lw.getName(), lw.getDescription(), lw.getDifficulty(),
+                        lw.getMinimalPoint(), lw.getCreationDate(), lw.getCoordinates().getId(),
+                        lw.getAuthor() != null ? lw.getAuthor().getId() : null,
+                        lw.getAuthor() != null ? lw.getAuthor().getName() : null,
+                        lw.getDiscipline() != null ? lw.getDiscipline().getId() : null,
+                        lw.getDiscipline() != null ? lw.getDiscipline().getName() : null))
+                .toList();
+    }
+
+    public static List<LabWork> labWorks(int rows, long seed) {
+        Random rnd = new Random(seed);
+        int refs = Math.max(1, rows / 20);
+
+        List<Location> locations = new ArrayList<>(refs);
+        List<Person> persons = new ArrayList<>(refs);
+        List<Discipline> disciplines = new ArrayList<>(refs);
+        List<Coordinates> coordinates = new ArrayList<>(refs);
+        for (int i = 0; i < refs; i++) {
+            long id = i + 1;
+            Location l = new Location();
+            l.setId(id);
+            l.setName("location-" + id);
+            l.setX(rnd.nextDouble() * 1000);
+            l.setY(rnd.nextInt(1000));
+            locations.add(l);
+
+            Person p = new Person();
+            p.setId(id);
+            p.setName("person-" + id);
+            p.setEyeColor(Color.values()[rnd.nextInt(Color.values().length)]);
+            p.setHairColor(Color.values()[rnd.nextInt(Color.values().length)]);
+            p.setWeight(50 + rnd.nextDouble() * 50);
+            p.setNationality(Country.values()[rnd.nextInt(Country.values().length)]);
+            p.setLocation(rnd.nextBoolean() ? l : null);
+            persons.add(p);
+
+            Discipline d = new Discipline();
+            d.setId(id);
+            d.setName("discipline-" + id);
+            d.setPracticeHours((long) rnd.nextInt(200));
+            d.setLabsCount((long) rnd.nextInt(20));
+            disciplines.add(d);
+
+            Coordinates c = new Coordinates();
+            c.setId(id);
+            c.setX(rnd.nextFloat() * 500);
+            c.setY(rnd.nextFloat() * 500);
+            coordinates.add(c);
+        }
+
+        ZonedDateTime now = ZonedDateTime.now();
+        List<LabWork> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LabWork lw = new LabWork();
+            lw.setId((long) i + 1);
+            lw.setName("lab-" + (i + 1));
+            lw.setDescription(DESCRIPTION);
+            lw.setDifficulty(Difficulty.values()[rnd.nextInt(Difficulty.values().length)]);
+            lw.setMinimalPoint(1L + rnd.nextInt(100));
+            lw.setCreationDate(now.minusMinutes(i));
+            lw.setCoordinates(coordinates.get(rnd.nextInt(refs)));
+            lw.setAuthor(rnd.nextInt(10) == 0 ? null : persons.get(rnd.nextInt(refs)));
+            lw.setDiscipline(rnd.nextInt(4) == 0 ? null : disciplines.get(rnd.nextInt(refs)));
+            result.add(lw);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package com.savadanko.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.savadanko.domain.dto.ImportResultDTO;
+import com.savadanko.domain.requests.CreateCoordinatesRequest;
+import com.savadanko.domain.requests.CreateLabWorkRequest;
+import com.savadanko.service.CoordinatesService;
+import com.savadanko.service.LabWorkImportService;
+import com.savadanko.service.LabWorkService;
+import com.savadanko.service.LabWorkStatsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading {@code rows} LabWorks through the bulk import versus one {@link LabWorkService#create} call
+ * per row, as a client without the import endpoint would. Runs on PostgreSQL, see
+ * {@link BenchContext#startApplication()}; the rows are deleted after every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImportBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private ConfigurableApplicationContext ctx;
+    private LabWorkService service;
+    private LabWorkImportService importService;
+    private LabWorkStatsService stats;
+    private JdbcTemplate jdbc;
+    private Long coordinatesId;
+    private List<CreateLabWorkRequest> requests;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ctx = BenchContext.startApplication();
+        service = ctx.getBean(LabWorkService.class);
+        importService = ctx.getBean(LabWorkImportService.class);
+        stats = ctx.getBean(LabWorkStatsService.class);
+        jdbc = ctx.getBean(JdbcTemplate.class);
+        coordinatesId = ctx.getBean(CoordinatesService.class).create(new CreateCoordinatesRequest(0f, 0f)).id();
+        // no author or discipline: the generated ids do not exist in this database
+        requests = BenchData.labWorks(rows, 42).stream()
+                .map(lw -> new CreateLabWorkRequest(lw.getName(), coordinatesId, lw.getDescription(),
+                        lw.getDifficulty(), lw.getMinimalPoint(), null, null))
+                .toList();
+        payload = ctx.getBean(ObjectMapper.class).writeValueAsBytes(requests);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteLoaded() {
+        jdbc.update("delete from lab_work where coordinates_id = ?", coordinatesId);
+        stats.reconcile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbc.update("delete from coordinates where id = ?", coordinatesId);
+        ctx.close();
+    }
+
+    @Benchmark
+    public ImportResultDTO importRows() throws IOException {
+        return importService.importLabWorks(new ByteArrayInputStream(payload));
+    }
+
+    @Benchmark
+    public int createOneByOne() {
+        for (CreateLabWorkRequest req : requests) {
+            service.create(req);
+        }
+        return requests.size();
+    }
+}
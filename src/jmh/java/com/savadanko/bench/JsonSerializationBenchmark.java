@@ -0,0 +1,34 @@
+package com.savadanko.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.savadanko.domain.dto.LabWorkDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson serialization of LabWorkDTO lists with the mapper settings Spring Boot uses. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private ObjectMapper mapper;
+    private List<LabWorkDTO> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        dtos = BenchData.labWorkDtos(rows, 42);
+    }
+
+    @Benchmark
+    public void serialize() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), dtos);
+    }
+}
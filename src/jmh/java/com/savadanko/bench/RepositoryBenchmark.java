@@ -0,0 +1,74 @@
+package com.savadanko.bench;
+
+import com.savadanko.domain.LabWork;
+import com.savadanko.domain.LabWorkRow;
+import com.savadanko.domain.LabWorkSortField;
+import com.savadanko.domain.requests.LabWorkPageRequest;
+import com.savadanko.repository.LabWorkRepository;
+import com.savadanko.repository.LabWorkRowRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** LabWorkRepository and read model hot paths against the seeded {@link BenchContext} database. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryBenchmark {
+
+    private static final int PAGE = 50;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext ctx;
+    private LabWorkRepository repo;
+    private LabWorkRowRepository rowRepo;
+    private LabWorkPageRequest byName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start(rows);
+        repo = ctx.getBean(LabWorkRepository.class);
+        rowRepo = ctx.getBean(LabWorkRowRepository.class);
+        byName = new LabWorkPageRequest(PAGE, null, LabWorkSortField.NAME, Sort.Direction.ASC,
+                null, null, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public List<LabWorkRow> firstPageByName() {
+        return rowRepo.findPage(byName, null, null, PAGE + 1);
+    }
+
+    @Benchmark
+    public List<LabWorkRow> deepPageByName() {
+        // keyset seek into the last tenth of the table
+        long id = rows - rows / 10;
+        return rowRepo.findPage(byName, "lab-" + id, id, PAGE + 1);
+    }
+
+    @Benchmark
+    public LabWork findFullById() {
+        return repo.findFullById(ThreadLocalRandom.current().nextLong(1, rows + 1)).orElseThrow();
+    }
+
+    @Benchmark
+    public List<LabWork> findHardest() {
+        return repo.findHardest(PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public long sumMinimalPoint() {
+        return repo.sumMinimalPoint();
+    }
+}
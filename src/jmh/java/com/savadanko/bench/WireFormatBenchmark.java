@@ -0,0 +1,91 @@
+package com.savadanko.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.savadanko.config.ColumnarJsonHttpMessageConverter;
+import com.savadanko.domain.dto.LabWorkDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding cost of a LabWork table page in every format the list endpoints negotiate, with and
+ * without gzip. The payload size is reported next to the timings as the {@code bytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WireFormatBenchmark {
+
+    public enum Format { JSON, SMILE, CBOR, COLUMNAR }
+
+    private static final Type ROWS = new TypeReference<List<LabWorkDTO>>() {}.getType();
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"JSON", "SMILE", "CBOR", "COLUMNAR"})
+    public Format format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper mapper;
+    private ColumnarJsonHttpMessageConverter columnar;
+    private List<LabWorkDTO> dtos;
+
+    /** Size of the last encoded page; JMH reports the field as a secondary result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = switch (format) {
+            case SMILE -> Jackson2ObjectMapperBuilder.smile().build();
+            case CBOR -> Jackson2ObjectMapperBuilder.cbor().build();
+            case JSON, COLUMNAR -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        columnar = new ColumnarJsonHttpMessageConverter(mapper);
+        dtos = BenchData.labWorkDtos(rows, 42);
+    }
+
+    @Benchmark
+    public void encode(Payload payload) throws IOException {
+        ByteCounter sink = new ByteCounter();
+        encode(sink);
+        payload.bytes = sink.count;
+    }
+
+    private void encode(OutputStream sink) throws IOException {
+        OutputStream out = gzip ? new GZIPOutputStream(sink, 8192) : sink;
+        if (format == Format.COLUMNAR) {
+            columnar.write(dtos, ROWS, out);
+        } else {
+            mapper.writeValue(out, dtos);
+        }
+        out.close();
+    }
+
+    private static final class ByteCounter extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
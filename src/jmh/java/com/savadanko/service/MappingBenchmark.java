@@ -0,0 +1,49 @@
+package com.savadanko.service;
+
+import com.savadanko.bench.BenchContext;
+import com.savadanko.bench.BenchData;
+import com.savadanko.domain.LabWork;
+import com.savadanko.domain.dto.LabWorkDTO;
+import com.savadanko.domain.dto.LabWorkFullDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Cost of LabWork entity-to-DTO mapping per list of rows. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext ctx;
+    private List<LabWork> labWorks;
+    private LabWorkMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        labWorks = BenchData.labWorks(rows, 42);
+        // the mapper works on detached entities, the database stays empty
+        ctx = BenchContext.start(0);
+        mapper = ctx.getBean(LabWorkMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public List<LabWorkDTO> toDto() {
+        return labWorks.stream().map(mapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<LabWorkFullDTO> toFullDto() {
+        return labWorks.stream().map(mapper::toFullDto).toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.savadanko.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpatialIndex queries against a naive scan of the same points held in flat arrays. Points are
+ * uniform in a 1e6 x 1e6 square; boxes are sized to hold about {@link #BOX_POINTS} of them.
+ * The overlay variants run with {@link #OVERLAY} uncompacted writes pending, the worst case
+ * between two compactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpatialIndexBenchmark {
+
+    private static final double EXTENT = 1_000_000;
+    private static final int BOX_POINTS = 100;
+    private static final int OVERLAY = SpatialIndex.MAX_OVERLAY - 1;
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private long[] ids;
+    private double[] xs;
+    private double[] ys;
+    private SpatialIndex index;
+    private SpatialIndex indexWithOverlay;
+    private double[] qx;
+    private double[] qy;
+    private double side;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        ids = new long[rows];
+        xs = new double[rows];
+        ys = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = i + 1;
+            xs[i] = rnd.nextDouble(EXTENT);
+            ys[i] = rnd.nextDouble(EXTENT);
+        }
+        index = new SpatialIndex("bench");
+        index.reload(this::fill);
+        indexWithOverlay = new SpatialIndex("bench-overlay");
+        indexWithOverlay.reload(this::fill);
+        for (int i = 0; i < OVERLAY; i++) {
+            indexWithOverlay.put(ids[rnd.nextInt(rows)], rnd.nextDouble(EXTENT), rnd.nextDouble(EXTENT));
+        }
+
+        side = EXTENT * Math.sqrt((double) BOX_POINTS / rows);
+        qx = new double[QUERIES];
+        qy = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            qx[i] = rnd.nextDouble(EXTENT - side);
+            qy[i] = rnd.nextDouble(EXTENT - side);
+        }
+    }
+
+    private void fill(SpatialIndex.Builder builder) {
+        for (int i = 0; i < rows; i++) builder.add(ids[i], xs[i], ys[i]);
+    }
+
+    private int query() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public List<SpatialIndex.Point> nearest10Index() {
+        int q = query();
+        return index.nearest(qx[q], qy[q], 10);
+    }
+
+    @Benchmark
+    public List<SpatialIndex.Point> nearest10IndexWithOverlay() {
+        int q = query();
+        return indexWithOverlay.nearest(qx[q], qy[q], 10);
+    }
+
+    @Benchmark
+    public List<SpatialIndex.Point> nearest10Scan() {
+        int q = query();
+        double x = qx[q], y = qy[q];
+        SpatialIndex.Neighbours best = new SpatialIndex.Neighbours(10);
+        for (int i = 0; i < rows; i++) {
+            double dx = xs[i] - x, dy = ys[i] - y;
+            double d = dx * dx + dy * dy;
+            if (d < best.bound()) best.offer(ids[i], xs[i], ys[i], d);
+        }
+        return best.sorted();
+    }
+
+    @Benchmark
+    public List<SpatialIndex.Point> withinIndex() {
+        int q = query();
+        return index.within(qx[q], qy[q], qx[q] + side, qy[q] + side, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<SpatialIndex.Point> withinIndexWithOverlay() {
+        int q = query();
+        return indexWithOverlay.within(qx[q], qy[q], qx[q] + side, qy[q] + side, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<SpatialIndex.Point> withinScan() {
+        int q = query();
+        double minX = qx[q], minY = qy[q], maxX = minX + side, maxY = minY + side;
+        List<SpatialIndex.Point> out = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            double x = xs[i], y = ys[i];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) out.add(new SpatialIndex.Point(ids[i], x, y));
+        }
+        return out;
+    }
+}
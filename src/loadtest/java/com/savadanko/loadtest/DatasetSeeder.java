@@ -0,0 +1,180 @@
+package com.savadanko.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+/**
+ * Fills an empty (or any) database with a synthetic dataset through the public API, so a load test
+ * needs nothing but a running instance. Reference entities are created with parallel POSTs, lab works
+ * in NDJSON batches through {@code POST /api/labworks/import}. The same {@code randomSeed} gives the
+ * same data.
+ * <p>
+ * Seeded lab works get {@code minimalPoint} 1..1000; values from {@link #CHURN_MINIMAL_POINT} up are
+ * left to rows the load itself creates, so {@code by-minimal-point} deletes never eat the dataset.
+ */
+final class DatasetSeeder {
+
+    static final long CHURN_MINIMAL_POINT = 1_000_000;
+
+    private static final int PARALLELISM = 16;
+    private static final int IMPORT_BATCH = 5_000;
+    private static final String[] WORDS = {
+            "graph", "matrix", "parser", "thread", "socket", "cache", "index", "query", "stream", "kernel",
+            "compiler", "scheduler", "network", "database", "recursion", "sorting", "hashing", "tree"
+    };
+    private static final String[] COLORS = {"GREEN", "RED", "WHITE", "BROWN"};
+    private static final String[] COUNTRIES = {"UNITED_KINGDOM", "GERMANY", "INDIA"};
+    private static final String[] DIFFICULTIES = {"VERY_EASY", "EASY", "INSANE", "HOPELESS"};
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final ObjectMapper json;
+
+    DatasetSeeder(HttpClient http, String baseUrl, ObjectMapper json) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.json = json;
+    }
+
+    record Size(int locations, int coordinates, int persons, int disciplines, int labWorks) {
+
+        static Size from(Map<String, String> opts) {
+            int labWorks = Integer.parseInt(opts.getOrDefault("seedLabWorks", "10000"));
+            return new Size(
+                    Integer.parseInt(opts.getOrDefault("seedLocations", String.valueOf(Math.max(1, labWorks / 200)))),
+                    Integer.parseInt(opts.getOrDefault("seedCoordinates", String.valueOf(Math.max(1, labWorks / 20)))),
+                    Integer.parseInt(opts.getOrDefault("seedPersons", String.valueOf(Math.max(1, labWorks / 50)))),
+                    Integer.parseInt(opts.getOrDefault("seedDisciplines", String.valueOf(Math.max(1, labWorks / 500)))),
+                    labWorks);
+        }
+    }
+
+    /** Creates the dataset and returns what was created, for the report. */
+    Map<String, Object> seed(Size size, long randomSeed) throws Exception {
+        long started = System.nanoTime();
+
+        List<Long> locations = createAll("/api/locations", size.locations(), i -> {
+            Random r = new Random(randomSeed * 31 + i);
+            return Map.of("name", "seed-location-" + i, "x", r.nextDouble() * 1000, "y", r.nextInt(1000));
+        });
+        List<Long> coordinates = createAll("/api/coordinates", size.coordinates(), i -> {
+            Random r = new Random(randomSeed * 37 + i);
+            return Map.of("x", r.nextFloat() * 1000, "y", r.nextFloat() * 1000);
+        });
+        List<Long> persons = createAll("/api/persons", size.persons(), i -> {
+            Random r = new Random(randomSeed * 41 + i);
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", "seed-person-" + i);
+            body.put("hairColor", COLORS[r.nextInt(COLORS.length)]);
+            if (r.nextBoolean()) body.put("eyeColor", COLORS[r.nextInt(COLORS.length)]);
+            body.put("weight", 40 + r.nextDouble() * 80);
+            if (r.nextBoolean()) body.put("nationality", COUNTRIES[r.nextInt(COUNTRIES.length)]);
+            if (r.nextInt(4) > 0) body.put("locationId", locations.get(r.nextInt(locations.size())));
+            return body;
+        });
+        List<Long> disciplines = createAll("/api/disciplines", size.disciplines(), i -> {
+            Random r = new Random(randomSeed * 43 + i);
+            return Map.of("name", "seed-discipline-" + i,
+                    "practiceHours", 8 + r.nextInt(120), "labsCount", 1 + r.nextInt(12));
+        });
+        long imported = importLabWorks(size.labWorks(), randomSeed, coordinates, persons, disciplines);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("locations", locations.size());
+        report.put("coordinates", coordinates.size());
+        report.put("persons", persons.size());
+        report.put("disciplines", disciplines.size());
+        report.put("labWorks", imported);
+        report.put("seconds", (System.nanoTime() - started) / 1e9);
+        return report;
+    }
+
+    private List<Long> createAll(String path, int count, IntFunction<Map<String, Object>> body) throws Exception {
+        List<Future<Long>> futures = new ArrayList<>(count);
+        Semaphore permits = new Semaphore(PARALLELISM);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return create(path, body.apply(n));
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        List<Long> ids = new ArrayList<>(count);
+        for (Future<Long> f : futures) ids.add(f.get());
+        return ids;
+    }
+
+    private long create(String path, Map<String, Object> body) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> resp = sendRetrying(req);
+        if (resp.statusCode() != 201) {
+            throw new IllegalStateException("POST " + path + " answered " + resp.statusCode() + ": " + resp.body());
+        }
+        return json.readTree(resp.body()).path("id").asLong();
+    }
+
+    private long importLabWorks(int count, long randomSeed, List<Long> coordinates, List<Long> persons,
+                                List<Long> disciplines) throws Exception {
+        Random r = new Random(randomSeed * 47);
+        long imported = 0;
+        for (int from = 0; from < count; from += IMPORT_BATCH) {
+            StringBuilder ndjson = new StringBuilder();
+            for (int i = from; i < Math.min(count, from + IMPORT_BATCH); i++) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("name", "seed-lab-" + i);
+                row.put("coordinatesId", coordinates.get(r.nextInt(coordinates.size())));
+                row.put("description", WORDS[r.nextInt(WORDS.length)] + " " + WORDS[r.nextInt(WORDS.length)]
+                        + " " + WORDS[r.nextInt(WORDS.length)]);
+                row.put("difficulty", DIFFICULTIES[r.nextInt(DIFFICULTIES.length)]);
+                row.put("minimalPoint", 1 + r.nextInt(1000));
+                if (r.nextInt(10) > 0) row.put("authorId", persons.get(r.nextInt(persons.size())));
+                if (r.nextInt(10) > 1) row.put("disciplineId", disciplines.get(r.nextInt(disciplines.size())));
+                ndjson.append(json.writeValueAsString(row)).append('\n');
+            }
+            HttpRequest req = HttpRequest.newBuilder(URI.create(baseUrl + "/api/labworks/import"))
+                    .timeout(Duration.ofMinutes(5))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                    .build();
+            HttpResponse<String> resp = sendRetrying(req);
+            if (resp.statusCode() != 200) {
+                throw new IllegalStateException("Import answered " + resp.statusCode() + ": " + resp.body());
+            }
+            JsonNode result = json.readTree(resp.body());
+            if (result.path("failed").asLong() > 0) {
+                throw new IllegalStateException("Import rejected rows: " + result.path("errors"));
+            }
+            imported += result.path("imported").asLong();
+        }
+        return imported;
+    }
+
+    /** Seeding goes through admission control like any client: back off on 503 instead of failing. */
+    private HttpResponse<String> sendRetrying(HttpRequest req) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            if (resp.statusCode() != 503 || attempt == 10) return resp;
+            long seconds = resp.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(seconds * 1000);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.savadanko.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Per-endpoint latency samples (nanoseconds), error count and how many of the errors were 503s from
+ * admission control; percentiles are computed once at the end.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+    private long shed;
+
+    void record(long nanos, boolean ok) {
+        record(nanos, ok, false);
+    }
+
+    synchronized void record(long nanos, boolean ok, boolean wasShed) {
+        if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+        samples[size++] = nanos;
+        if (!ok) errors++;
+        if (wasShed) shed++;
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Summary(size, errors, shed, size / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                size == 0 ? 0 : sorted[size - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, idx)] / 1e6;
+    }
+
+    record Summary(long requests, long errors, long shed, double throughput,
+                   double p50Ms, double p95Ms, double p99Ms, double maxMs) {}
+}
@@ -0,0 +1,435 @@
+package com.savadanko.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Closed-loop HTTP load driver: {@code concurrency} clients issue requests back to back for
+ * {@code duration} seconds against a running instance and a JSON report with per-endpoint
+ * throughput and latency percentiles is printed (and written to {@code out}, if given).
+ * <p>
+ * Usage: {@code ./gradlew loadTest -Pargs="baseUrl=http://localhost:8080 concurrency=200 duration=60 out=report.json"}
+ * <p>
+ * {@code scenario=read} (default) drives the blocking MVC/JPA endpoints, {@code scenario=reactive-read}
+ * the same reads through the R2DBC endpoints under {@code /api/reactive}, {@code scenario=delete-heavy}
+ * the guarded deletes: create-then-delete of locations, deletes of missing ids (404) and of lab work
+ * authors (409). The last two leave the data as they found it, so runs can be repeated.
+ * {@code scenario=minimal-point-writes} changes only minimalPoint, half through PUT and half through
+ * a JSON Merge Patch; compare with {@code pg_stat_wal} sampled around the run for the bytes written.
+ * <p>
+ * {@code scenario=mixed} replays the production mix ({@link #mix}): mostly table pages and detail
+ * views, some creates and updates through all five controllers, and the occasional special
+ * operation. With {@code seed=true} a dataset is created first through the API ({@link DatasetSeeder};
+ * sizes via {@code seedLabWorks}, {@code seedPersons}, {@code seedLocations}, {@code seedCoordinates},
+ * {@code seedDisciplines}, data via {@code randomSeed}), so a local app on an empty database is enough:
+ * {@code ./gradlew loadTest -Pargs="scenario=mixed seed=true seedLabWorks=50000 concurrency=100 duration=120"}
+ */
+public final class LoadDriver {
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final int concurrency;
+    private final Duration duration;
+    private final String scenario;
+    private final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private List<Long> labWorkIds = List.of();
+    private List<Long> authorIds = List.of();
+    private List<Long> personIds = List.of();
+    private List<Long> locationIds = List.of();
+    private List<Long> coordinatesIds = List.of();
+    private List<Long> disciplineIds = List.of();
+    private Map<String, Object> seeded;
+
+    private record Op(String name, int weight, Consumer<ThreadLocalRandom> action) {}
+
+    /** Weights per mille of {@code scenario=mixed}. */
+    private final List<Op> mix = List.of(
+            new Op("page", 555, this::pageStep),
+            new Op("labwork detail", 200, this::labWorkDetailStep),
+            new Op("person detail", 50, this::personDetailStep),
+            new Op("reference lookup", 30, this::referenceLookupStep),
+            new Op("create labwork", 30, this::createLabWorkStep),
+            new Op("patch labwork", 30, this::patchLabWorkStep),
+            new Op("put labwork", 15, this::putLabWorkStep),
+            new Op("create person", 15, this::createPersonStep),
+            new Op("patch person", 15, this::patchPersonStep),
+            new Op("create location", 10, this::createLocationStep),
+            new Op("patch location", 10, this::patchLocationStep),
+            new Op("create coordinates", 10, this::createCoordinatesStep),
+            new Op("patch coordinates", 10, this::patchCoordinatesStep),
+            new Op("create discipline", 5, this::createDisciplineStep),
+            new Op("patch discipline", 5, this::patchDisciplineStep),
+            new Op("decrease difficulty", 5, this::decreaseDifficultyStep),
+            new Op("assign top10 hardest", 3, this::assignTop10Step),
+            new Op("delete by minimal point", 2, this::deleteByMinimalPointStep));
+    private final int mixTotal = mix.stream().mapToInt(Op::weight).sum();
+
+    LoadDriver(String baseUrl, int concurrency, Duration duration, String scenario) {
+        this.baseUrl = baseUrl;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.scenario = scenario;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (eq > 0) opts.put(a.substring(0, eq), a.substring(eq + 1));
+        }
+        LoadDriver driver = new LoadDriver(
+                opts.getOrDefault("baseUrl", "http://localhost:8080"),
+                Integer.parseInt(opts.getOrDefault("concurrency", "100")),
+                Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration", "60"))),
+                opts.getOrDefault("scenario", "read"));
+        if (Boolean.parseBoolean(opts.getOrDefault("seed", "false"))) {
+            driver.seeded = new DatasetSeeder(driver.http, driver.baseUrl, driver.json)
+                    .seed(DatasetSeeder.Size.from(opts), Long.parseLong(opts.getOrDefault("randomSeed", "42")));
+        }
+        Map<String, Object> report = driver.run();
+        String text = driver.json.writeValueAsString(report);
+        System.out.println(text);
+        if (opts.containsKey("out")) Files.writeString(Path.of(opts.get("out")), text);
+    }
+
+    Map<String, Object> run() throws Exception {
+        fetchIds();
+        if (labWorkIds.isEmpty()) throw new IllegalStateException("No lab works to read; seed the database first (seed=true)");
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        step(rnd);
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, Object> endpoints = new TreeMap<>();
+        recorders.forEach((name, r) -> endpoints.put(name, r.summarize(seconds)));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("scenario", scenario);
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", seconds);
+        if (seeded != null) report.put("seeded", seeded);
+        if (scenario.equals("mixed")) {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            mix.forEach(op -> weights.put(op.name(), op.weight()));
+            report.put("mixPerMille", weights);
+        }
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private void step(ThreadLocalRandom rnd) {
+        switch (scenario) {
+            case "delete-heavy" -> deleteStep(rnd);
+            case "minimal-point-writes" -> minimalPointStep(rnd);
+            case "mixed" -> mixedStep(rnd);
+            default -> readStep(rnd);
+        }
+    }
+
+    /** Read-mostly dashboard traffic: 50-row table pages and detail views. */
+    private void readStep(ThreadLocalRandom rnd) {
+        boolean reactive = scenario.equals("reactive-read");
+        long id = labWorkIds.get(rnd.nextInt(labWorkIds.size()));
+        if (rnd.nextInt(10) < 8) {
+            if (reactive) get("GET /api/reactive/labworks", "/api/reactive/labworks?limit=50");
+            else get("GET /api/labworks", "/api/labworks?size=50");
+        } else {
+            if (reactive) get("GET /api/reactive/labworks/{id}/full", "/api/reactive/labworks/" + id + "/full");
+            else get("GET /api/labworks/{id}/full", "/api/labworks/" + id + "/full");
+        }
+    }
+
+    private void get(String endpoint, String path) {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long t0 = System.nanoTime();
+        int status;
+        try {
+            status = http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        recorders.computeIfAbsent(endpoint, k -> new LatencyRecorder())
+                .record(System.nanoTime() - t0, status > 0 && status < 400, status == 503);
+    }
+
+    /** 60% create-then-delete, 20% deletes of ids that do not exist, 20% deletes of referenced rows. */
+    private void deleteStep(ThreadLocalRandom rnd) {
+        int roll = rnd.nextInt(10);
+        if (roll < 6) {
+            String body = "{\"name\":\"load-" + rnd.nextInt(1_000_000) + "\",\"x\":1.5,\"y\":2}";
+            HttpResponse<String> created = send("POST /api/locations", request("/api/locations")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)), 201);
+            if (created == null) return;
+            long id;
+            try {
+                id = json.readTree(created.body()).path("id").asLong();
+            } catch (Exception e) {
+                return;
+            }
+            send("DELETE /api/locations/{id}", request("/api/locations/" + id).DELETE(), 204);
+        } else if (roll < 8 || authorIds.isEmpty()) {
+            long missing = Long.MAX_VALUE - rnd.nextInt(1_000_000);
+            send("DELETE /api/locations/{id} missing", request("/api/locations/" + missing).DELETE(), 404);
+        } else {
+            long author = authorIds.get(rnd.nextInt(authorIds.size()));
+            send("DELETE /api/persons/{id} referenced", request("/api/persons/" + author).DELETE(), 409);
+        }
+    }
+
+    private void minimalPointStep(ThreadLocalRandom rnd) {
+        long id = labWorkIds.get(rnd.nextInt(labWorkIds.size()));
+        String body = "{\"minimalPoint\":" + rnd.nextInt(1, 1000) + "}";
+        if (rnd.nextBoolean()) {
+            send("PUT /api/labworks/{id}", request("/api/labworks/" + id)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body)), 200);
+        } else {
+            send("PATCH /api/labworks/{id}", request("/api/labworks/" + id)
+                    .header("Content-Type", "application/merge-patch+json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(body)), 200);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    /** Records the call as ok only on {@code expectedStatus}; returns the response in that case, else null. */
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder req, int expectedStatus) {
+        long t0 = System.nanoTime();
+        HttpResponse<String> resp;
+        try {
+            resp = http.send(req.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            resp = null;
+        }
+        boolean ok = resp != null && resp.statusCode() == expectedStatus;
+        recorders.computeIfAbsent(endpoint, k -> new LatencyRecorder())
+                .record(System.nanoTime() - t0, ok, resp != null && resp.statusCode() == 503);
+        return ok ? resp : null;
+    }
+
+    private void mixedStep(ThreadLocalRandom rnd) {
+        int roll = rnd.nextInt(mixTotal);
+        for (Op op : mix) {
+            roll -= op.weight();
+            if (roll < 0) {
+                op.action().accept(rnd);
+                return;
+            }
+        }
+    }
+
+    /** A 20-row table page in a random order; a third of the time the user pages on once. */
+    private void pageStep(ThreadLocalRandom rnd) {
+        String[] sorts = {"ID", "NAME", "MINIMAL_POINT", "CREATION_DATE"};
+        String query = "/api/labworks?size=20&sort=" + sorts[rnd.nextInt(sorts.length)]
+                + "&direction=" + (rnd.nextBoolean() ? "ASC" : "DESC");
+        HttpResponse<String> first = send("GET /api/labworks", request(query).GET(), 200);
+        if (first == null || rnd.nextInt(3) > 0) return;
+        try {
+            String cursor = json.readTree(first.body()).path("nextCursor").asText(null);
+            if (cursor == null) return;
+            String next = query + "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+            send("GET /api/labworks?cursor", request(next).GET(), 200);
+        } catch (Exception e) {
+            // the first page was recorded; a body we cannot read just ends the walk
+        }
+    }
+
+    private void labWorkDetailStep(ThreadLocalRandom rnd) {
+        get("GET /api/labworks/{id}/full", "/api/labworks/" + pick(labWorkIds, rnd) + "/full");
+    }
+
+    private void personDetailStep(ThreadLocalRandom rnd) {
+        get("GET /api/persons/{id}/full", "/api/persons/" + pick(personIds, rnd) + "/full");
+    }
+
+    private void referenceLookupStep(ThreadLocalRandom rnd) {
+        switch (rnd.nextInt(3)) {
+            case 0 -> get("GET /api/locations/{id}", "/api/locations/" + pick(locationIds, rnd));
+            case 1 -> get("GET /api/coordinates/{id}", "/api/coordinates/" + pick(coordinatesIds, rnd));
+            default -> get("GET /api/disciplines/{id}", "/api/disciplines/" + pick(disciplineIds, rnd));
+        }
+    }
+
+    /** Load-created rows carry a churn minimalPoint, the range {@link #deleteByMinimalPointStep} removes. */
+    private void createLabWorkStep(ThreadLocalRandom rnd) {
+        String body = "{\"name\":\"load-lab-" + rnd.nextInt(1_000_000) + "\""
+                + ",\"coordinatesId\":" + pick(coordinatesIds, rnd)
+                + ",\"description\":\"created under load\""
+                + ",\"difficulty\":\"" + difficulty(rnd) + "\""
+                + ",\"minimalPoint\":" + (DatasetSeeder.CHURN_MINIMAL_POINT + rnd.nextInt(100))
+                + ",\"authorId\":" + pick(personIds, rnd)
+                + ",\"disciplineId\":" + pick(disciplineIds, rnd) + "}";
+        sendJson("POST /api/labworks", "/api/labworks", "POST", body, 201);
+    }
+
+    private void patchLabWorkStep(ThreadLocalRandom rnd) {
+        String body = rnd.nextBoolean()
+                ? "{\"minimalPoint\":" + rnd.nextInt(1, 1000) + "}"
+                : "{\"difficulty\":\"" + difficulty(rnd) + "\",\"description\":\"edited " + rnd.nextInt(1000) + "\"}";
+        sendMergePatch("PATCH /api/labworks/{id}", "/api/labworks/" + pick(labWorkIds, rnd), body);
+    }
+
+    private void putLabWorkStep(ThreadLocalRandom rnd) {
+        String body = "{\"name\":\"edited-lab-" + rnd.nextInt(1_000_000) + "\""
+                + ",\"difficulty\":\"" + difficulty(rnd) + "\""
+                + ",\"minimalPoint\":" + rnd.nextInt(1, 1000) + "}";
+        sendJson("PUT /api/labworks/{id}", "/api/labworks/" + pick(labWorkIds, rnd), "PUT", body, 200);
+    }
+
+    private void createPersonStep(ThreadLocalRandom rnd) {
+        String body = "{\"name\":\"load-person-" + rnd.nextInt(1_000_000) + "\""
+                + ",\"hairColor\":\"BROWN\",\"weight\":" + rnd.nextInt(40, 120)
+                + ",\"locationId\":" + pick(locationIds, rnd) + "}";
+        sendJson("POST /api/persons", "/api/persons", "POST", body, 201);
+    }
+
+    private void patchPersonStep(ThreadLocalRandom rnd) {
+        sendMergePatch("PATCH /api/persons/{id}", "/api/persons/" + pick(personIds, rnd),
+                "{\"weight\":" + rnd.nextInt(40, 120) + "}");
+    }
+
+    private void createLocationStep(ThreadLocalRandom rnd) {
+        String body = "{\"name\":\"load-location-" + rnd.nextInt(1_000_000) + "\",\"x\":" + rnd.nextDouble(1000)
+                + ",\"y\":" + rnd.nextInt(1000) + "}";
+        sendJson("POST /api/locations", "/api/locations", "POST", body, 201);
+    }
+
+    private void patchLocationStep(ThreadLocalRandom rnd) {
+        sendMergePatch("PATCH /api/locations/{id}", "/api/locations/" + pick(locationIds, rnd),
+                "{\"x\":" + rnd.nextDouble(1000) + "}");
+    }
+
+    private void createCoordinatesStep(ThreadLocalRandom rnd) {
+        String body = "{\"x\":" + rnd.nextFloat() * 1000 + ",\"y\":" + rnd.nextFloat() * 1000 + "}";
+        sendJson("POST /api/coordinates", "/api/coordinates", "POST", body, 201);
+    }
+
+    private void patchCoordinatesStep(ThreadLocalRandom rnd) {
+        sendMergePatch("PATCH /api/coordinates/{id}", "/api/coordinates/" + pick(coordinatesIds, rnd),
+                "{\"y\":" + rnd.nextFloat() * 1000 + "}");
+    }
+
+    private void createDisciplineStep(ThreadLocalRandom rnd) {
+        String body = "{\"name\":\"load-discipline-" + rnd.nextInt(1_000_000) + "\""
+                + ",\"practiceHours\":" + rnd.nextInt(8, 128) + ",\"labsCount\":" + rnd.nextInt(1, 13) + "}";
+        sendJson("POST /api/disciplines", "/api/disciplines", "POST", body, 201);
+    }
+
+    private void patchDisciplineStep(ThreadLocalRandom rnd) {
+        sendMergePatch("PATCH /api/disciplines/{id}", "/api/disciplines/" + pick(disciplineIds, rnd),
+                "{\"practiceHours\":" + rnd.nextInt(8, 128) + "}");
+    }
+
+    private void decreaseDifficultyStep(ThreadLocalRandom rnd) {
+        send("POST /api/labworks/{id}/decrease-difficulty",
+                request("/api/labworks/" + pick(labWorkIds, rnd) + "/decrease-difficulty?steps=1")
+                        .POST(HttpRequest.BodyPublishers.noBody()), 200);
+    }
+
+    private void assignTop10Step(ThreadLocalRandom rnd) {
+        send("POST /api/labworks/assign-top10-hardest-to-discipline/{id}",
+                request("/api/labworks/assign-top10-hardest-to-discipline/" + pick(disciplineIds, rnd))
+                        .POST(HttpRequest.BodyPublishers.noBody()), 200);
+    }
+
+    private void deleteByMinimalPointStep(ThreadLocalRandom rnd) {
+        long value = DatasetSeeder.CHURN_MINIMAL_POINT + rnd.nextInt(100);
+        send("DELETE /api/labworks/by-minimal-point/{value}",
+                request("/api/labworks/by-minimal-point/" + value).DELETE(), 202);
+    }
+
+    private void sendJson(String endpoint, String path, String method, String body, int expectedStatus) {
+        send(endpoint, request(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body)), expectedStatus);
+    }
+
+    private void sendMergePatch(String endpoint, String path, String body) {
+        send(endpoint, request(path)
+                .header("Content-Type", "application/merge-patch+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body)), 200);
+    }
+
+    private static long pick(List<Long> ids, ThreadLocalRandom rnd) {
+        return ids.get(rnd.nextInt(ids.size()));
+    }
+
+    private static String difficulty(ThreadLocalRandom rnd) {
+        String[] values = {"VERY_EASY", "EASY", "INSANE", "HOPELESS"};
+        return values[rnd.nextInt(values.length)];
+    }
+
+    private void fetchIds() throws Exception {
+        // the mixed scenario spreads detail views over a larger sample than one page
+        int sample = scenario.equals("mixed") ? 10_000 : 500;
+        List<Long> ids = new ArrayList<>();
+        Set<Long> authors = new LinkedHashSet<>();
+        String cursor = null;
+        do {
+            String path = "/api/labworks?size=500"
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            JsonNode page = json.readTree(http.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString()).body());
+            page.path("items").forEach(n -> {
+                ids.add(n.path("id").asLong());
+                if (n.hasNonNull("authorId")) authors.add(n.path("authorId").asLong());
+            });
+            cursor = page.path("nextCursor").asText(null);
+        } while (cursor != null && ids.size() < sample);
+        labWorkIds = ids;
+        authorIds = List.copyOf(authors);
+
+        if (scenario.equals("mixed")) {
+            personIds = fetchAll("/api/persons");
+            locationIds = fetchAll("/api/locations");
+            coordinatesIds = fetchAll("/api/coordinates");
+            disciplineIds = fetchAll("/api/disciplines");
+            if (personIds.isEmpty() || locationIds.isEmpty() || coordinatesIds.isEmpty() || disciplineIds.isEmpty()) {
+                throw new IllegalStateException("The mixed scenario needs rows of every entity; run with seed=true");
+            }
+        }
+    }
+
+    private List<Long> fetchAll(String path) throws Exception {
+        JsonNode list = json.readTree(http.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString()).body());
+        List<Long> ids = new ArrayList<>();
+        list.forEach(n -> ids.add(n.path("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,114 @@
+package com.savadanko.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the application {@code runs} times and measures, from process launch, the time until
+ * {@code path} first answers 200: what a new instance behind the autoscaler costs before it serves
+ * traffic. Spring's own "Started ... in" figure is recorded alongside. A JSON report tagged with
+ * {@code release} is printed (and written to {@code out}, if given).
+ * <p>
+ * Usage: {@code ./gradlew startupBenchmark -Pargs="name=cds jar=build/startup/cds/app.jar
+ * jvmArgs=-XX:SharedArchiveFile=build/startup/cds/app.jsa runs=5 release=v1.2 out=cds.json"}
+ * <p>
+ * {@code jvmArgs} is comma-separated; the DB_* environment is passed on to the application.
+ */
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (eq > 0) opts.put(a.substring(0, eq), a.substring(eq + 1));
+        }
+        StartupBenchmark bench = new StartupBenchmark();
+        Map<String, Object> report = bench.run(opts);
+        String text = bench.json.writeValueAsString(report);
+        System.out.println(text);
+        if (opts.containsKey("out")) Files.writeString(Path.of(opts.get("out")), text);
+    }
+
+    Map<String, Object> run(Map<String, String> opts) throws Exception {
+        String jar = opts.getOrDefault("jar", "build/libs/app.jar");
+        int port = Integer.parseInt(opts.getOrDefault("port", "8080"));
+        int runs = Integer.parseInt(opts.getOrDefault("runs", "5"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("timeout", "120")));
+        URI probe = URI.create("http://localhost:" + port + opts.getOrDefault("path", "/api/labworks?size=1"));
+
+        List<String> command = new ArrayList<>();
+        command.add(opts.getOrDefault("java", "java"));
+        for (String arg : opts.getOrDefault("jvmArgs", "").split(",")) {
+            if (!arg.isBlank()) command.add(arg);
+        }
+        command.addAll(List.of("-jar", jar, "--server.port=" + port));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            results.add(once(command, probe, timeout));
+        }
+
+        long[] ttfr = results.stream().mapToLong(r -> (Long) r.get("timeToFirstRequestMs")).sorted().toArray();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("name", opts.getOrDefault("name", jar));
+        report.put("release", opts.getOrDefault("release", "unknown"));
+        report.put("command", String.join(" ", command));
+        report.put("runs", results);
+        report.put("timeToFirstRequestMs", Map.of(
+                "min", ttfr[0],
+                "median", ttfr[ttfr.length / 2],
+                "max", ttfr[ttfr.length - 1]));
+        return report;
+    }
+
+    private Map<String, Object> once(List<String> command, URI probe, Duration timeout) throws Exception {
+        Path log = Files.createTempFile("startup-", ".log");
+        long t0 = System.nanoTime();
+        Process app = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = t0 + timeout.toNanos();
+            HttpRequest req = HttpRequest.newBuilder(probe).timeout(Duration.ofSeconds(5)).GET().build();
+            while (true) {
+                if (!app.isAlive()) throw new IllegalStateException("Application exited, see " + log);
+                if (System.nanoTime() > deadline) throw new IllegalStateException("No successful request within " + timeout);
+                try {
+                    if (http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) break;
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            long elapsedMs = (System.nanoTime() - t0) / 1_000_000;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("timeToFirstRequestMs", elapsedMs);
+            Matcher started = STARTED.matcher(Files.readString(log));
+            result.put("springStartedMs", started.find() ? Math.round(Double.parseDouble(started.group(1)) * 1000) : null);
+            Files.delete(log);
+            return result;
+        } finally {
+            app.destroy();
+            app.waitFor();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.savadanko.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control in front of the controllers. A request takes a slot of its endpoint class
+ * (queueing briefly if all are taken) and holds it until the response is complete, including
+ * streamed and other async responses. When the queue is full or the wait runs out, it is answered
+ * with 503 and {@code Retry-After} before it reaches a controller or the connection pool, so a
+ * burst of full-list requests cannot starve the cheap CRUD calls of connections.
+ * <p>
+ * Meters per class: {@code admission.limit}, {@code admission.in_flight}, {@code admission.queue_depth},
+ * {@code admission.wait} (time queued by admitted requests) and {@code admission.rejected} (by reason).
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final List<EndpointClass> classes = new ArrayList<>();
+
+    public AdmissionControlFilter(AdmissionProperties props, MeterRegistry meters) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        for (AdmissionProperties.EndpointClass c : props.classes()) {
+            AdmissionLimiter limiter = new AdmissionLimiter(c);
+            Gauge.builder("admission.limit", limiter, AdmissionLimiter::limit).tag("class", c.name()).register(meters);
+            Gauge.builder("admission.in_flight", limiter, AdmissionLimiter::inFlight).tag("class", c.name()).register(meters);
+            Gauge.builder("admission.queue_depth", limiter, AdmissionLimiter::waiting).tag("class", c.name()).register(meters);
+            classes.add(new EndpointClass(
+                    c.name(),
+                    c.patterns().stream().map(parser::parse).toList(),
+                    limiter,
+                    Math.max(1, (c.retryAfter().toMillis() + 999) / 1000),
+                    Timer.builder("admission.wait").tag("class", c.name()).register(meters),
+                    rejected(meters, c.name(), "queue_full"),
+                    rejected(meters, c.name(), "timeout")));
+        }
+    }
+
+    private static Counter rejected(MeterRegistry meters, String name, String reason) {
+        return Counter.builder("admission.rejected").tag("class", name).tag("reason", reason).register(meters);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass c = classify(request);
+        if (c == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long queuedAt = System.nanoTime();
+        AdmissionLimiter.Outcome outcome;
+        try {
+            outcome = c.limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = AdmissionLimiter.Outcome.TIMED_OUT;
+        }
+        if (outcome != AdmissionLimiter.Outcome.ADMITTED) {
+            (outcome == AdmissionLimiter.Outcome.QUEUE_FULL ? c.queueFull : c.timedOut).increment();
+            reject(response, c);
+            return;
+        }
+        long admittedAt = System.nanoTime();
+        c.waitTimer.record(admittedAt - queuedAt, TimeUnit.NANOSECONDS);
+
+        Release release = new Release(c.limiter, admittedAt);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) request.getAsyncContext().addListener(release);
+            else release.run();
+        }
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (EndpointClass c : classes) {
+            for (PathPattern p : c.patterns) {
+                if (p.matches(path)) return c;
+            }
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, EndpointClass c) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(c.retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many concurrent " + c.name + " requests, retry later\"}");
+    }
+
+    private record EndpointClass(String name, List<PathPattern> patterns, AdmissionLimiter limiter,
+                                 long retryAfterSeconds, Timer waitTimer, Counter queueFull, Counter timedOut) {}
+
+    /** Frees the slot once, whether the response ends on the request thread or asynchronously. */
+    private static final class Release implements AsyncListener, Runnable {
+
+        private final AdmissionLimiter limiter;
+        private final long admittedAt;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Release(AdmissionLimiter limiter, long admittedAt) {
+            this.limiter = limiter;
+            this.admittedAt = admittedAt;
+        }
+
+        @Override
+        public void run() {
+            if (done.compareAndSet(false, true)) limiter.release(System.nanoTime() - admittedAt);
+        }
+
+        @Override public void onComplete(AsyncEvent event) { run(); }
+        @Override public void onTimeout(AsyncEvent event) { run(); }
+        @Override public void onError(AsyncEvent event) { run(); }
+        @Override public void onStartAsync(AsyncEvent event) { }
+    }
+}
@@ -0,0 +1,105 @@
+package com.savadanko.config;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit with a bounded wait queue for one endpoint class.
+ * <p>
+ * An adaptive limit follows AIMD: a completion slower than the latency target cuts the limit by
+ * 10%, at most once per round of {@code limit} completions so one burst of slow responses counts
+ * once; a faster completion while every slot was taken adds {@code 1/limit}, i.e. one slot per round.
+ */
+final class AdmissionLimiter {
+
+    enum Outcome { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private static final double BACKOFF = 0.9;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final long maxWaitNanos;
+    private final long latencyTargetNanos; // 0: fixed limit
+
+    private double estimate;
+    private volatile int limit;
+    private volatile int inFlight;
+    private volatile int waiting;
+    private int completionsSinceBackoff;
+
+    AdmissionLimiter(AdmissionProperties.EndpointClass c) {
+        this.limit = Math.max(1, c.limit());
+        this.estimate = limit;
+        this.minLimit = Math.max(1, Math.min(c.minLimit(), limit));
+        this.maxLimit = Math.max(limit, c.maxLimit());
+        this.queueCapacity = Math.max(0, c.queue());
+        this.maxWaitNanos = c.maxWait().toNanos();
+        this.latencyTargetNanos = c.latencyTarget() != null ? c.latencyTarget().toNanos() : 0;
+    }
+
+    Outcome acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                inFlight++;
+                return Outcome.ADMITTED;
+            }
+            if (waiting >= queueCapacity) return Outcome.QUEUE_FULL;
+            waiting++;
+            try {
+                long nanos = maxWaitNanos;
+                while (inFlight >= limit) {
+                    if (nanos <= 0) return Outcome.TIMED_OUT;
+                    nanos = slotFreed.awaitNanos(nanos);
+                }
+                inFlight++;
+                return Outcome.ADMITTED;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long latencyNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= limit;
+            inFlight--;
+            if (latencyTargetNanos > 0) adapt(latencyNanos, saturated);
+            if (limit - inFlight > 1) slotFreed.signalAll();
+            else slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adapt(long latencyNanos, boolean saturated) {
+        completionsSinceBackoff++;
+        if (latencyNanos > latencyTargetNanos) {
+            if (completionsSinceBackoff < estimate) return;
+            estimate = Math.max(minLimit, estimate * BACKOFF);
+            completionsSinceBackoff = 0;
+        } else if (saturated) {
+            estimate = Math.min(maxLimit, estimate + 1.0 / estimate);
+        }
+        limit = (int) estimate;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight;
+    }
+
+    int waiting() {
+        return waiting;
+    }
+}
@@ -0,0 +1,39 @@
+package com.savadanko.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code app.admission}: concurrency limits per endpoint class. A request belongs to the first
+ * class with a matching path pattern; requests no class matches are not limited.
+ */
+@ConfigurationProperties("app.admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue List<EndpointClass> classes
+) {
+    /**
+     * @param limit         concurrent requests admitted; the starting point when adaptive
+     * @param minLimit      lower bound of an adaptive limit
+     * @param maxLimit      upper bound of an adaptive limit; {@code limit} when not set
+     * @param queue         requests allowed to wait for a slot; beyond that they are rejected at once
+     * @param maxWait       how long a queued request waits for a slot before it is rejected
+     * @param latencyTarget makes the limit adaptive: it shrinks while requests take longer than this
+     *                      and grows back while they are faster and the limit is what holds them up
+     * @param retryAfter    sent as {@code Retry-After} with the 503
+     */
+    public record EndpointClass(
+            String name,
+            @DefaultValue List<String> patterns,
+            @DefaultValue("16") int limit,
+            @DefaultValue("1") int minLimit,
+            @DefaultValue("0") int maxLimit,
+            @DefaultValue("32") int queue,
+            @DefaultValue("100ms") Duration maxWait,
+            Duration latencyTarget,
+            @DefaultValue("1s") Duration retryAfter
+    ) {}
+}
@@ -0,0 +1,49 @@
+package com.savadanko.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.savadanko.domain.Coordinates;
+import com.savadanko.domain.Discipline;
+import com.savadanko.domain.Location;
+import com.savadanko.domain.Person;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+
+/**
+ * Second-level cache for the small reference tables LabWork and Person point at.
+ * Hibernate keeps the regions consistent with writes made through the entity manager;
+ * size bounds live in {@code application.conf}.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final List<Class<?>> CACHED_ENTITIES =
+            List.of(Coordinates.class, Location.class, Discipline.class, Person.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheManagerCustomizer(CacheManager entityCacheManager) {
+        return props -> props.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        // hit/miss/put/eviction counters of every region, on top of Hibernate's own statistics
+        return registry -> CACHED_ENTITIES.forEach(entity -> {
+            Cache<Object, Object> cache = entityCacheManager.getCache(entity.getName());
+            if (cache != null) JCacheMetrics.monitor(registry, cache);
+        });
+    }
+}
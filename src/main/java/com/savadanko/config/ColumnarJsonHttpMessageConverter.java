@@ -0,0 +1,161 @@
+package com.savadanko.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Column-oriented JSON for the table views ({@code Accept: application/vnd.columnar+json}).
+ * <p>
+ * A list of records is written as {@code {"rows":n,"columns":[names],"data":[[column 0], [column 1], ...]}},
+ * so field names appear once per response instead of once per row. A record holding such a list
+ * (a page with its cursor) keeps its own fields and gets the list in columnar form. Values go
+ * through the application's ObjectMapper serializers, so dates and enums look exactly as in JSON.
+ */
+public class ColumnarJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType COLUMNAR_JSON = new MediaType("application", "vnd.columnar+json");
+
+    private final ObjectMapper mapper;
+
+    public ColumnarJsonHttpMessageConverter(ObjectMapper mapper) {
+        super(COLUMNAR_JSON);
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // the element type is only known from the generic signature, see canWrite(Type, ...)
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return getSupportedMediaTypes();
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) return false;
+        Type target = type != null ? type : clazz;
+        if (rowType(target) != null) return true;
+        return target instanceof Class<?> c && c.isRecord() && tableComponent(c) != null;
+    }
+
+    public void write(Object value, @Nullable Type type, OutputStream out) throws IOException {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(StreamUtils.nonClosing(out))) {
+            SerializerProvider provider = mapper.getSerializerProviderInstance();
+            Class<?> rowType = rowType(type != null ? type : value.getClass());
+            if (rowType != null) {
+                writeColumns((List<?>) value, rowType, gen, provider);
+            } else {
+                writeWrapper((Record) value, gen, provider);
+            }
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        write(value, type, outputMessage.getBody());
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is write-only", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is write-only", inputMessage);
+    }
+
+    private void writeWrapper(Record value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        for (RecordComponent c : value.getClass().getRecordComponents()) {
+            gen.writeFieldName(c.getName());
+            Object v = read(c, value);
+            Class<?> rowType = rowType(c.getGenericType());
+            if (rowType != null && v != null) {
+                writeColumns((List<?>) v, rowType, gen, provider);
+            } else {
+                writeValue(v, c.getType(), gen, provider);
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeColumns(List<?> rows, Class<?> rowType, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        RecordComponent[] columns = rowType.getRecordComponents();
+        gen.writeStartObject();
+        gen.writeNumberField("rows", rows.size());
+        gen.writeArrayFieldStart("columns");
+        for (RecordComponent c : columns) gen.writeString(c.getName());
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("data");
+        for (RecordComponent c : columns) {
+            JsonSerializer<Object> serializer = provider.findTypedValueSerializer(c.getType(), true, null);
+            gen.writeStartArray();
+            for (Object row : rows) {
+                Object v = read(c, row);
+                if (v == null) gen.writeNull();
+                else serializer.serialize(v, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writeValue(Object v, Class<?> type, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        if (v == null) gen.writeNull();
+        else provider.findTypedValueSerializer(type, true, null).serialize(v, gen, provider);
+    }
+
+    private static Object read(RecordComponent c, Object row) {
+        try {
+            return c.getAccessor().invoke(row);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + c, e);
+        }
+    }
+
+    /** Element type of a {@code List<SomeRecord>}, or null. */
+    private static Class<?> rowType(Type type) {
+        if (type instanceof ParameterizedType p
+                && p.getRawType() instanceof Class<?> raw && List.class.isAssignableFrom(raw)
+                && p.getActualTypeArguments()[0] instanceof Class<?> element && element.isRecord()) {
+            return element;
+        }
+        return null;
+    }
+
+    private static RecordComponent tableComponent(Class<?> record) {
+        for (RecordComponent c : record.getRecordComponents()) {
+            if (rowType(c.getGenericType()) != null) return c;
+        }
+        return null;
+    }
+}
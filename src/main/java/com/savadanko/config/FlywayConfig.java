@@ -0,0 +1,22 @@
+package com.savadanko.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Migrates on start unless {@code app.flyway.migrate-on-start} is false (the CDS training run,
+     * which has no database). A property read here still works on an AOT-processed build, where
+     * {@code spring.flyway.enabled} was already evaluated at build time.
+     */
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${app.flyway.migrate-on-start:true}") boolean migrate) {
+        return flyway -> {
+            if (migrate) flyway.migrate();
+        };
+    }
+}
@@ -2,6 +2,8 @@ package com.savadanko.config;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 // http://localhost:8080/swagger-ui/index.html
@@ -14,5 +16,15 @@ import org.springframework.context.annotation.Configuration;
                 description = "IS LabWork"
         )
 )
-public class OpenApiConfig {}
+public class OpenApiConfig {
 
+    /**
+     * With {@code spring.main.lazy-initialization} on, keeps every bean but springdoc's eager:
+     * the OpenAPI machinery is built on the first request to /v3/api-docs or /swagger-ui,
+     * not during startup.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerExceptSpringdoc() {
+        return (name, definition, type) -> type == null || !type.getName().startsWith("org.springdoc.");
+    }
+}
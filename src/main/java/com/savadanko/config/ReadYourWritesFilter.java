@@ -0,0 +1,83 @@
+package com.savadanko.config;
+
+import com.savadanko.domain.dto.ChangeEventDTO;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Read-your-writes across replicas. Every committed write made on behalf of an HTTP request
+ * answers with {@value #HEADER}: the primary WAL position right after the commit. A client that
+ * echoes the header on its next requests is only routed to replicas that have replayed that far,
+ * otherwise to the primary.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Consistency-Token";
+
+    private static final Logger log = LoggerFactory.getLogger(ReadYourWritesFilter.class);
+    private static final ThreadLocal<Long> MIN_LSN = new ThreadLocal<>();
+
+    private final JdbcTemplate jdbc;
+
+    public ReadYourWritesFilter(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    /** WAL position the current request must observe, or null. */
+    static Long requiredLsn() {
+        return MIN_LSN.get();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = request.getHeader(HEADER);
+        if (token == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            MIN_LSN.set(Long.parseLong(token.trim()));
+        } catch (NumberFormatException e) {
+            // a token we did not issue; reading from the primary is always consistent
+            MIN_LSN.set(Long.MAX_VALUE);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MIN_LSN.remove();
+        }
+    }
+
+    /**
+     * Runs while the committed transaction's resources are still bound, so the position is read
+     * on the connection that made the write. The service returns before the controller writes
+     * the body, so the header still fits in.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommit(ChangeEventDTO event) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs)) return;
+        HttpServletResponse response = attrs.getResponse();
+        if (response == null || response.isCommitted()) return;
+        try {
+            Long lsn = jdbc.execute((ConnectionCallback<Long>) ReplicaSet::currentLsn);
+            response.setHeader(HEADER, String.valueOf(lsn));
+        } catch (RuntimeException e) {
+            log.warn("Could not read the primary WAL position for a consistency token: {}", e.getMessage());
+        }
+    }
+}
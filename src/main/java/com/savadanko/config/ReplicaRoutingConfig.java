@@ -0,0 +1,99 @@
+package com.savadanko.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to replicas and everything else to the primary.
+ * <p>
+ * The application DataSource is a {@link LazyConnectionDataSourceProxy}: it hands Hibernate a
+ * connection handle and only fetches a physical connection on the first statement, by which time
+ * a {@code @Transactional(readOnly = true)} method has marked the handle read-only. Read-only
+ * handles are served by the replica router, the rest by the primary pool. Replaces Boot's
+ * DataSource auto-configuration; spring.datasource.* and spring.datasource.hikari.* still apply
+ * to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(DataSourceProperties primaryProps, ReplicaRoutingProperties routing, Environment env) {
+        HikariDataSource primary = primaryProps.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica r : routing.replicas()) {
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("replica-" + replicas.size());
+            ds.setJdbcUrl(r.url());
+            ds.setUsername(r.username() != null ? r.username() : primaryProps.determineUsername());
+            ds.setPassword(r.password() != null ? r.password() : primaryProps.determinePassword());
+            ds.setMaximumPoolSize(r.poolSize());
+            ds.setReadOnly(true);
+            replicas.add(ds);
+        }
+        return new ReplicaSet(primary, replicas, routing.maxLagBytes());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaSet replicaSet, ReplicaRoutingProperties routing) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(replicaSet.primary());
+        proxy.setReadOnlyDataSource(new ReplicaRouter(replicaSet, routing.readYourWrites()));
+        return proxy;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.routing", name = "read-your-writes", havingValue = "true",
+            matchIfMissing = true)
+    public ReadYourWritesFilter readYourWritesFilter(DataSource dataSource) {
+        return new ReadYourWritesFilter(dataSource);
+    }
+
+    /** Picks a replica per physical connection; the primary when no replica qualifies. */
+    static final class ReplicaRouter extends AbstractDataSource {
+
+        private final ReplicaSet replicaSet;
+        private final boolean readYourWrites;
+
+        ReplicaRouter(ReplicaSet replicaSet, boolean readYourWrites) {
+            this.replicaSet = replicaSet;
+            this.readYourWrites = readYourWrites;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return target().getConnection();
+        }
+
+        /** Passed on to the picked pool; Hikari pools reject per-call credentials with SQLFeatureNotSupportedException. */
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return target().getConnection(username, password);
+        }
+
+        private DataSource target() {
+            DataSource replica = replicaSet.pick(readYourWrites ? ReadYourWritesFilter.requiredLsn() : null);
+            return replica != null ? replica : replicaSet.primary();
+        }
+    }
+}
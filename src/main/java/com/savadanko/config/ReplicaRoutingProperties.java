@@ -0,0 +1,23 @@
+package com.savadanko.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * {@code app.datasource.routing}: read replicas for {@code @Transactional(readOnly = true)} work.
+ *
+ * @param maxLagBytes    replicas whose replay position trails the primary by more WAL than this are skipped
+ * @param readYourWrites hand out a consistency token after writes and honour it on reads
+ */
+@ConfigurationProperties("app.datasource.routing")
+public record ReplicaRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("16777216") long maxLagBytes,
+        @DefaultValue("true") boolean readYourWrites
+) {
+    /** Credentials default to spring.datasource.username/password. */
+    public record Replica(String url, String username, String password, @DefaultValue("10") int poolSize) {}
+}
@@ -0,0 +1,115 @@
+package com.savadanko.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The primary pool plus the replica pools, with the replication state of each replica refreshed
+ * by a periodic probe. Positions are WAL byte offsets ({@code pg_lsn - '0/0'}), so "lag" is
+ * the amount of WAL a replica still has to replay and a consistency token is a primary offset.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSet.class);
+
+    static final class Replica {
+        final String name;
+        final HikariDataSource pool;
+        volatile boolean usable;
+        volatile long replayLsn;
+
+        Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagBytes;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSet(HikariDataSource primary, List<HikariDataSource> replicas, long maxLagBytes) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(ds -> new Replica(ds.getPoolName(), ds)).toList();
+        this.maxLagBytes = maxLagBytes;
+    }
+
+    public HikariDataSource primary() {
+        return primary;
+    }
+
+    /**
+     * Round-robin over the replicas that are within the lag budget and have replayed at least
+     * {@code minLsn}; null when none qualifies and the read has to go to the primary.
+     */
+    public DataSource pick(Long minLsn) {
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(n, 1));
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.usable && (minLsn == null || r.replayLsn >= minLsn)) return r.pool;
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.probe-interval:1000}")
+    public void probe() {
+        long primaryLsn;
+        try (Connection con = primary.getConnection()) {
+            primaryLsn = currentLsn(con);
+        } catch (SQLException e) {
+            log.warn("Primary probe failed: {}", e.getMessage());
+            return;
+        }
+        for (Replica r : replicas) {
+            try (Connection con = r.pool.getConnection();
+                 Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery("""
+                         select pg_is_in_recovery(),
+                                pg_wal_lsn_diff(coalesce(pg_last_wal_replay_lsn(), '0/0'), '0/0')::bigint""")) {
+                rs.next();
+                boolean inRecovery = rs.getBoolean(1);
+                long replay = rs.getLong(2);
+                r.replayLsn = replay;
+                boolean usable = inRecovery && primaryLsn - replay <= maxLagBytes;
+                if (r.usable != usable) {
+                    log.info("Replica {} is now {} (lag {} bytes{})", r.name, usable ? "in rotation" : "out of rotation",
+                            Math.max(0, primaryLsn - replay), inRecovery ? "" : ", not in recovery");
+                }
+                r.usable = usable;
+            } catch (SQLException e) {
+                if (r.usable) log.warn("Replica {} probe failed, taking it out of rotation: {}", r.name, e.getMessage());
+                r.usable = false;
+            }
+        }
+    }
+
+    /** Current primary WAL position, read through {@code con} (any connection to the primary). */
+    public static long currentLsn(Connection con) throws SQLException {
+        return queryLong(con, "select pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')::bigint");
+    }
+
+    private static long queryLong(Connection con, String sql) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(r -> r.pool.close());
+        primary.close();
+    }
+}
@@ -0,0 +1,26 @@
+package com.savadanko.controller;
+
+import com.savadanko.service.ChangeBroadcaster;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeStreamController {
+
+    private final ChangeBroadcaster broadcaster;
+
+    public ChangeStreamController(ChangeBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений объектов (SSE)")
+    public SseEmitter subscribe() {
+        return broadcaster.subscribe();
+    }
+}
@@ -0,0 +1,59 @@
+package com.savadanko.controller;
+
+import com.savadanko.config.ColumnarJsonHttpMessageConverter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@code If-None-Match} handling shared by the GET endpoints.
+ * <p>
+ * The same resource can be written as JSON, Smile, CBOR or (lists only) columnar JSON depending on
+ * {@code Accept}, so each format gets its own tag and responses carry {@code Vary: Accept}. Plain JSON
+ * keeps the bare tag, which is also what {@code If-Match} is checked against.
+ */
+final class ConditionalGet {
+
+    private static final List<MediaType> COMPACT_FORMATS = List.of(
+            MediaType.valueOf("application/x-jackson-smile"),
+            MediaType.valueOf("application/cbor"),
+            ColumnarJsonHttpMessageConverter.COLUMNAR_JSON);
+
+    private ConditionalGet() {}
+
+    static boolean notModified(WebRequest request, String etag) {
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(forFormat(etag, request.getHeader(HttpHeaders.ACCEPT)));
+    }
+
+    /** JSON comes first among the converters, so it wins whenever the client accepts it at the top quality. */
+    static String forFormat(String etag, String accept) {
+        if (accept == null || accept.isBlank()) return etag;
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept).stream()
+                    .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                    .toList();
+        } catch (InvalidMediaTypeException e) {
+            return etag;
+        }
+        for (MediaType type : accepted) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) return etag;
+            for (MediaType format : COMPACT_FORMATS) {
+                if (type.isCompatibleWith(format)) {
+                    return etag.substring(0, etag.length() - 1) + "-" + format.getSubtype() + '"';
+                }
+            }
+        }
+        return etag;
+    }
+}
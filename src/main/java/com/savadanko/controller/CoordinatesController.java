@@ -1,13 +1,19 @@
 package com.savadanko.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.savadanko.domain.dto.CoordinatesDTO;
 import com.savadanko.domain.requests.CreateCoordinatesRequest;
 import com.savadanko.domain.requests.UpdateCoordinatesRequest;
+import com.savadanko.service.ETags;
+import com.savadanko.service.MergePatch;
 import com.savadanko.service.CoordinatesService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,13 +29,23 @@ public class CoordinatesController {
 
     @GetMapping
     @Operation(summary = "Список координат")
-    public List<CoordinatesDTO> findAll() {
+    public List<CoordinatesDTO> findAll(WebRequest request) {
+        if (ConditionalGet.notModified(request, service.listEtag())) return null;
         return service.findAll();
     }
 
+    @GetMapping("/within")
+    @Operation(summary = "Координаты внутри прямоугольника")
+    public List<CoordinatesDTO> findWithin(@RequestParam double minX, @RequestParam double minY,
+                                           @RequestParam double maxX, @RequestParam double maxY,
+                                           @RequestParam(defaultValue = "1000") @Min(1) @Max(10000) int limit) {
+        return service.findWithin(minX, minY, maxX, maxY, limit);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Найти координаты по id")
-    public CoordinatesDTO findById(@PathVariable Long id) {
+    public CoordinatesDTO findById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.notModified(request, service.etag(id))) return null;
         return service.findById(id);
     }
 
@@ -42,8 +58,16 @@ public class CoordinatesController {
 
     @PutMapping("/{id}")
     @Operation(summary = "Обновить координаты")
-    public CoordinatesDTO update(@PathVariable Long id, @Valid @RequestBody UpdateCoordinatesRequest req) {
-        return service.update(id, req);
+    public CoordinatesDTO update(@PathVariable Long id, @Valid @RequestBody UpdateCoordinatesRequest req,
+                                 @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.update(id, req, ETags.expectedVersion(id, ifMatch));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @Operation(summary = "Частично обновить координаты (JSON Merge Patch)")
+    public CoordinatesDTO patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.patch(id, patch, ETags.expectedVersion(id, ifMatch));
     }
 
     @DeleteMapping("/{id}")
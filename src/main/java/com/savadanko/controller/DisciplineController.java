@@ -1,13 +1,17 @@
 package com.savadanko.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.savadanko.domain.requests.CreateDisciplineRequest;
 import com.savadanko.domain.dto.DisciplineDTO;
 import com.savadanko.domain.requests.UpdateDisciplineRequest;
+import com.savadanko.service.ETags;
+import com.savadanko.service.MergePatch;
 import com.savadanko.service.DisciplineService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,13 +27,15 @@ public class DisciplineController {
 
     @GetMapping
     @Operation(summary = "Список дисциплин")
-    public List<DisciplineDTO> findAll() {
+    public List<DisciplineDTO> findAll(WebRequest request) {
+        if (ConditionalGet.notModified(request, service.listEtag())) return null;
         return service.findAll();
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Найти дисциплину по id")
-    public DisciplineDTO findById(@PathVariable Long id) {
+    public DisciplineDTO findById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.notModified(request, service.etag(id))) return null;
         return service.findById(id);
     }
 
@@ -42,8 +48,16 @@ public class DisciplineController {
 
     @PutMapping("/{id}")
     @Operation(summary = "Обновить дисциплину")
-    public DisciplineDTO update(@PathVariable Long id, @Valid @RequestBody UpdateDisciplineRequest req) {
-        return service.update(id, req);
+    public DisciplineDTO update(@PathVariable Long id, @Valid @RequestBody UpdateDisciplineRequest req,
+                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.update(id, req, ETags.expectedVersion(id, ifMatch));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @Operation(summary = "Частично обновить дисциплину (JSON Merge Patch)")
+    public DisciplineDTO patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                               @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.patch(id, patch, ETags.expectedVersion(id, ifMatch));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,50 @@
+package com.savadanko.controller;
+
+import com.savadanko.domain.dto.JobDTO;
+import com.savadanko.service.JobService;
+import com.savadanko.service.LabWorkJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobService jobs;
+    private final LabWorkJobService labWorkJobs;
+
+    public JobController(JobService jobs, LabWorkJobService labWorkJobs) {
+        this.jobs = jobs;
+        this.labWorkJobs = labWorkJobs;
+    }
+
+    @GetMapping
+    @Operation(summary = "Список фоновых задач")
+    public List<JobDTO> findAll() { return jobs.findAll(); }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Статус и прогресс фоновой задачи")
+    public JobDTO findById(@PathVariable UUID id) { return jobs.get(id); }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Отменить фоновую задачу")
+    public JobDTO cancel(@PathVariable UUID id) { return jobs.cancel(id); }
+
+    @PostMapping("/labworks/delete-by-minimal-point/{value}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Фоново удалить все LabWork с указанным minimalPoint (порциями)")
+    public JobDTO deleteAllByMinimalPoint(@PathVariable int value) {
+        return labWorkJobs.submitDeleteAllByMinimalPoint(value);
+    }
+
+    @PostMapping("/labworks/assign-top10-hardest-to-discipline/{disciplineId}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Фоново добавить в дисциплину 10 самых сложных LabWork")
+    public JobDTO assignTop10HardestToDiscipline(@PathVariable Long disciplineId) {
+        return labWorkJobs.submitAssignTop10HardestToDiscipline(disciplineId);
+    }
+}
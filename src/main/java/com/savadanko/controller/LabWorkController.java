@@ -1,15 +1,34 @@
 package com.savadanko.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.savadanko.domain.ExportFormat;
+import com.savadanko.domain.LabWorkSortField;
 import com.savadanko.domain.dto.*;
 import com.savadanko.domain.requests.CreateLabWorkRequest;
+import com.savadanko.domain.requests.LabWorkPageRequest;
 import com.savadanko.domain.requests.UpdateLabWorkRequest;
+import com.savadanko.service.ETags;
+import com.savadanko.service.MergePatch;
+import com.savadanko.service.LabWorkImportService;
+import com.savadanko.service.LabWorkJobService;
 import com.savadanko.service.LabWorkService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -17,36 +36,108 @@ import java.util.List;
 public class LabWorkController {
 
     private final LabWorkService service;
+    private final LabWorkImportService importService;
+    private final LabWorkJobService jobs;
 
-    public LabWorkController(LabWorkService service) {
+    public LabWorkController(LabWorkService service, LabWorkImportService importService, LabWorkJobService jobs) {
         this.service = service;
+        this.importService = importService;
+        this.jobs = jobs;
     }
 
     @GetMapping
-    @Operation(summary = "Список всех лабораторных работ")
-    public List<LabWorkDTO> findAll() { return service.findAll(); }
+    @Operation(summary = "Страница лабораторных работ (keyset-пагинация, фильтр по полному совпадению, сортировка)")
+    public LabWorkPageDTO findPage(
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "ID") LabWorkSortField sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) String authorName,
+            @RequestParam(required = false) String disciplineName,
+            WebRequest request) {
+        if (ConditionalGet.notModified(request, service.listEtag())) return null;
+        return service.findPage(new LabWorkPageRequest(
+                size, cursor, sort, direction, name, description, authorName, disciplineName));
+    }
 
     @GetMapping("/full")
     @Operation(summary = "Список всех лабораторных работ (полная древовидная структура)")
-    public List<LabWorkFullDTO> findAllFull() { return service.findAllFull(); }
+    public List<LabWorkFullDTO> findAllFull(WebRequest request) {
+        if (ConditionalGet.notModified(request, service.fullListEtag())) return null;
+        return service.findAllFull();
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Потоковая выгрузка всех лабораторных работ (NDJSON или CSV)")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        MediaType type = format == ExportFormat.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody body = out -> service.export(format, out);
+        return ResponseEntity.ok().contentType(type).body(body);
+    }
+
+    @GetMapping("/hardest")
+    @Operation(summary = "N самых сложных лабораторных работ (опционально в пределах дисциплины)")
+    public List<LabWorkDTO> findHardest(@RequestParam(defaultValue = "10") @Min(1) @Max(1000) int limit,
+                                        @RequestParam(required = false) Long disciplineId) {
+        return service.findHardest(limit, disciplineId);
+    }
+
+    @GetMapping("/within")
+    @Operation(summary = "Лабораторные работы, координаты которых попадают в прямоугольник")
+    public List<LabWorkDTO> findWithin(@RequestParam double minX, @RequestParam double minY,
+                                       @RequestParam double maxX, @RequestParam double maxY,
+                                       @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return service.findWithin(minX, minY, maxX, maxY, limit);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Полнотекстовый поиск по названию и описанию (с ранжированием и подсветкой)")
+    public List<LabWorkSearchHitDTO> search(@RequestParam @NotBlank @Size(max = 256) String q,
+                                            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        return service.search(q, limit);
+    }
 
     @GetMapping("/{id}")
     @Operation(summary = "Найти лабораторную работу по id")
-    public LabWorkDTO findById(@PathVariable Long id) { return service.findById(id); }
+    public LabWorkDTO findById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.notModified(request, service.etag(id))) return null;
+        return service.findById(id);
+    }
 
     @GetMapping("/{id}/full")
     @Operation(summary = "Лабораторная работа по id (полная древовидная структура)")
-    public LabWorkFullDTO findFullById(@PathVariable Long id) { return service.findFullById(id); }
+    public LabWorkFullDTO findFullById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.notModified(request, service.etag(id))) return null;
+        return service.findFullById(id);
+    }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Создать лабораторную работу")
     public LabWorkDTO create(@Valid @RequestBody CreateLabWorkRequest req) { return service.create(req); }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Массовый импорт лабораторных работ (JSON-массив или NDJSON)")
+    public ImportResultDTO importLabWorks(InputStream body) throws IOException {
+        return importService.importLabWorks(body);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Обновить лабораторную работу")
-    public LabWorkDTO update(@PathVariable Long id, @Valid @RequestBody UpdateLabWorkRequest req) {
-        return service.update(id, req);
+    public LabWorkDTO update(@PathVariable Long id, @Valid @RequestBody UpdateLabWorkRequest req,
+                             @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.update(id, req, ETags.expectedVersion(id, ifMatch));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @Operation(summary = "Частично обновить лабораторную работу (JSON Merge Patch)")
+    public LabWorkDTO patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.patch(id, patch, ETags.expectedVersion(id, ifMatch));
     }
 
     @DeleteMapping("/{id}")
@@ -54,11 +145,12 @@ public class LabWorkController {
     @Operation(summary = "Удалить лабораторную работу")
     public void delete(@PathVariable Long id) { service.delete(id); }
 
+    // the match count is unbounded, so the delete runs as a chunked job; progress is at /api/jobs/{id}
     @DeleteMapping("/by-minimal-point/{value}")
-    @ResponseStatus(HttpStatus.OK)
-    @Operation(summary = "Удалить все LabWork с указанным minimalPoint")
-    public DeleteResultDTO deleteAllByMinimalPoint(@PathVariable int value) {
-        return service.deleteAllByMinimalPoint(value);
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Удалить все LabWork с указанным minimalPoint (фоновая задача, порциями)")
+    public JobDTO deleteAllByMinimalPoint(@PathVariable int value) {
+        return jobs.submitDeleteAllByMinimalPoint(value);
     }
 
     @GetMapping("/minimal-point/sum")
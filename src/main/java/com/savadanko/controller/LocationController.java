@@ -1,13 +1,19 @@
 package com.savadanko.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.savadanko.domain.requests.CreateLocationRequest;
 import com.savadanko.domain.dto.LocationDTO;
 import com.savadanko.domain.requests.UpdateLocationRequest;
+import com.savadanko.service.ETags;
+import com.savadanko.service.MergePatch;
 import com.savadanko.service.LocationService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,13 +29,22 @@ public class LocationController {
 
     @GetMapping
     @Operation(summary = "Список всех локаций")
-    public List<LocationDTO> findAll() {
+    public List<LocationDTO> findAll(WebRequest request) {
+        if (ConditionalGet.notModified(request, service.listEtag())) return null;
         return service.findAll();
     }
 
+    @GetMapping("/nearest")
+    @Operation(summary = "N ближайших к точке локаций")
+    public List<LocationDTO> findNearest(@RequestParam double x, @RequestParam double y,
+                                         @RequestParam(defaultValue = "10") @Min(1) @Max(1000) int limit) {
+        return service.findNearest(x, y, limit);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Найти локацию по id")
-    public LocationDTO findById(@PathVariable Long id) {
+    public LocationDTO findById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.notModified(request, service.etag(id))) return null;
         return service.findById(id);
     }
 
@@ -42,8 +57,16 @@ public class LocationController {
 
     @PutMapping("/{id}")
     @Operation(summary = "Обновить локацию (только имя/координаты)")
-    public LocationDTO update(@PathVariable Long id, @Valid @RequestBody UpdateLocationRequest req) {
-        return service.update(id, req);
+    public LocationDTO update(@PathVariable Long id, @Valid @RequestBody UpdateLocationRequest req,
+                              @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.update(id, req, ETags.expectedVersion(id, ifMatch));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @Operation(summary = "Частично обновить локацию (JSON Merge Patch)")
+    public LocationDTO patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                             @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.patch(id, patch, ETags.expectedVersion(id, ifMatch));
     }
 
     @DeleteMapping("/{id}")
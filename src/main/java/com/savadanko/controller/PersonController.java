@@ -1,14 +1,18 @@
 package com.savadanko.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.savadanko.domain.dto.PersonDTO;
 import com.savadanko.domain.dto.PersonFullDTO;
 import com.savadanko.domain.requests.CreatePersonRequest;
 import com.savadanko.domain.requests.UpdatePersonRequest;
+import com.savadanko.service.ETags;
+import com.savadanko.service.MergePatch;
 import com.savadanko.service.PersonService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,20 +29,32 @@ public class PersonController {
     // short
     @GetMapping
     @Operation(summary = "Список персон")
-    public List<PersonDTO> findAll() { return service.findAll(); }
+    public List<PersonDTO> findAll(WebRequest request) {
+        if (ConditionalGet.notModified(request, service.listEtag())) return null;
+        return service.findAll();
+    }
 
     @GetMapping("/{id}")
     @Operation(summary = "Найти персону по id")
-    public PersonDTO findById(@PathVariable Long id) { return service.findById(id); }
+    public PersonDTO findById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.notModified(request, service.etag(id))) return null;
+        return service.findById(id);
+    }
 
     // full
     @GetMapping("/full")
     @Operation(summary = "Список персон (полная структура с локацией)")
-    public List<PersonFullDTO> findAllFull() { return service.findAllFull(); }
+    public List<PersonFullDTO> findAllFull(WebRequest request) {
+        if (ConditionalGet.notModified(request, service.listEtag())) return null;
+        return service.findAllFull();
+    }
 
     @GetMapping("/{id}/full")
     @Operation(summary = "Персона по id (полная структура с локацией)")
-    public PersonFullDTO findFullById(@PathVariable Long id) { return service.findFullById(id); }
+    public PersonFullDTO findFullById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.notModified(request, service.etag(id))) return null;
+        return service.findFullById(id);
+    }
 
     // create/update/delete
     @PostMapping
@@ -48,8 +64,16 @@ public class PersonController {
 
     @PutMapping("/{id}")
     @Operation(summary = "Обновить персону")
-    public PersonDTO update(@PathVariable Long id, @Valid @RequestBody UpdatePersonRequest req) {
-        return service.update(id, req);
+    public PersonDTO update(@PathVariable Long id, @Valid @RequestBody UpdatePersonRequest req,
+                            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.update(id, req, ETags.expectedVersion(id, ifMatch));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @Operation(summary = "Частично обновить персону (JSON Merge Patch)")
+    public PersonDTO patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                           @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return service.patch(id, patch, ETags.expectedVersion(id, ifMatch));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,54 @@
+package com.savadanko.controller;
+
+import com.savadanko.domain.dto.DisciplineDTO;
+import com.savadanko.domain.dto.LabWorkDTO;
+import com.savadanko.domain.dto.LabWorkFullDTO;
+import com.savadanko.domain.dto.PersonDTO;
+import com.savadanko.service.ReactiveReadService;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read API over R2DBC. Lists are streamed as NDJSON element by element,
+ * with backpressure from the HTTP response down to the database cursor.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveReadController {
+
+    private final ReactiveReadService service;
+
+    public ReactiveReadController(ReactiveReadService service) {
+        this.service = service;
+    }
+
+    @GetMapping(value = "/labworks", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Поток лабораторных работ по возрастанию id (NDJSON)")
+    public Flux<LabWorkDTO> findLabWorks(@RequestParam(defaultValue = "0") long afterId,
+                                         @RequestParam(defaultValue = "1000") @Min(1) @Max(1_000_000) int limit) {
+        return service.findLabWorks(afterId, limit);
+    }
+
+    @GetMapping("/labworks/{id}/full")
+    @Operation(summary = "Лабораторная работа по id (полная структура, неблокирующее чтение)")
+    public Mono<LabWorkFullDTO> findLabWorkFull(@PathVariable Long id) {
+        return service.findLabWorkFull(id);
+    }
+
+    @GetMapping(value = "/persons", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Поток персон (NDJSON)")
+    public Flux<PersonDTO> findPersons() {
+        return service.findPersons();
+    }
+
+    @GetMapping(value = "/disciplines", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Поток дисциплин (NDJSON)")
+    public Flux<DisciplineDTO> findDisciplines() {
+        return service.findDisciplines();
+    }
+}
@@ -0,0 +1,28 @@
+package com.savadanko.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of lab works per author, keyed by author id so that
+ * "count with author id &gt; X" is a primary key range scan.
+ */
+@Entity
+@Table(name = "author_lab_work_count")
+@Getter @Setter @NoArgsConstructor
+public class AuthorLabWorkCount {
+
+    @Id
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(name = "lab_work_count", nullable = false)
+    private long labWorkCount;
+
+    public AuthorLabWorkCount(Long authorId, long labWorkCount) {
+        this.authorId = authorId;
+        this.labWorkCount = labWorkCount;
+    }
+}
@@ -0,0 +1,9 @@
+package com.savadanko.domain;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // the subscriber missed events and has to reload its tables
+    RESYNC
+}
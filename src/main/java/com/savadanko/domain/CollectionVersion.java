@@ -0,0 +1,36 @@
+package com.savadanko.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One shard of the counter bumped in the same transaction as every write to an entity type
+ * (keyed by the entity's simple name); list endpoints derive their ETag from the sum over shards.
+ */
+@Entity
+@Table(name = "collection_version")
+@IdClass(CollectionVersion.Key.class)
+@Getter @Setter @NoArgsConstructor
+public class CollectionVersion {
+
+    @Id
+    private String name;
+
+    @Id
+    private int shard;
+
+    @Column(nullable = false)
+    private long version;
+
+    @EqualsAndHashCode @NoArgsConstructor @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String name;
+        private int shard;
+    }
+}
@@ -0,0 +1,14 @@
+package com.savadanko.domain;
+
+/**
+ * Result of a guarded single-statement delete, the {@code deleteIfUnreferenced} queries of the
+ * repositories. The row is deleted only if nothing points at it; both CTEs of the statement see the
+ * same snapshot, so the second one tells a missing row from a referenced one. A reference committed
+ * after the snapshot is caught by the foreign key instead.
+ */
+public enum DeleteOutcome {
+    DELETED,
+    NOT_FOUND,
+    // rows of another table still point at it
+    REFERENCED
+}
@@ -1,9 +1,19 @@
 package com.savadanko.domain;
 
 public enum Difficulty {
-    VERY_EASY,
-    EASY,
-    INSANE,
-    HOPELESS
-}
+    VERY_EASY(1),
+    EASY(2),
+    INSANE(3),
+    HOPELESS(4);
+
+    // persisted next to the name so "hardest first" can be served by an index
+    private final int rank;
 
+    Difficulty(int rank) {
+        this.rank = rank;
+    }
+
+    public int rank() {
+        return rank;
+    }
+}
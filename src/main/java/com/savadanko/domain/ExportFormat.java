@@ -0,0 +1,6 @@
+package com.savadanko.domain;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,9 @@
+package com.savadanko.domain;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED
+}
@@ -2,15 +2,26 @@ package com.savadanko.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.ZonedDateTime;
 
 @Entity
-@Table(name = "lab_work")
+@DynamicUpdate
+// list/sort/filter indexes live on the read model (LabWorkRow); these serve the writes and special operations
+@Table(name = "lab_work", indexes = {
+        @Index(name = "idx_lab_work_minimal_point_id", columnList = "minimal_point, id"),
+        @Index(name = "idx_lab_work_hardest", columnList = "difficulty_rank, minimal_point, id"),
+        @Index(name = "idx_lab_work_coordinates_id", columnList = "coordinates_id"),
+        @Index(name = "idx_lab_work_author_id", columnList = "author_id"),
+        @Index(name = "idx_lab_work_discipline_id", columnList = "discipline_id")
+})
 @Getter @Setter @NoArgsConstructor
 public class LabWork {
 
@@ -19,6 +30,11 @@ public class LabWork {
     @Column(nullable = false, unique = true)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank
     @Column(nullable = false)
     private String name;
@@ -40,6 +56,12 @@ public class LabWork {
     @Column(nullable = false)
     private Difficulty difficulty;
 
+    // mirrors difficulty.rank(); 0 only for rows written before the column existed
+    @Setter(AccessLevel.NONE)
+    @ColumnDefault("0")
+    @Column(name = "difficulty_rank", nullable = false)
+    private int difficultyRank;
+
     @Positive
     @Column(name = "minimal_point", nullable = false)
     private Long minimalPoint;
@@ -51,5 +73,10 @@ public class LabWork {
     @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "discipline_id")
     private Discipline discipline;
+
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+        this.difficultyRank = difficulty != null ? difficulty.rank() : 0;
+    }
 }
 
@@ -0,0 +1,87 @@
+package com.savadanko.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Read model of the lab work table: one row per {@link LabWork} with its coordinates, author
+ * name and discipline name inlined, so listing, filtering and sorting touch a single table.
+ * Rows are written only by set-based SQL in {@code LabWorkReadModelService} and disappear
+ * together with their lab work through an on-delete-cascade foreign key.
+ */
+@Entity
+@Immutable
+// created by db/migration/V2__indexes.sql, with a hash index on description JPA cannot declare;
+// listed here for schemas Hibernate generates itself (the H2 benchmark context)
+@Table(name = "lab_work_row", indexes = {
+        @Index(name = "idx_lab_work_row_name_id", columnList = "name, id"),
+        @Index(name = "idx_lab_work_row_minimal_point_id", columnList = "minimal_point, id"),
+        @Index(name = "idx_lab_work_row_creation_date_id", columnList = "creation_date, id"),
+        @Index(name = "idx_lab_work_row_hardest", columnList = "difficulty_rank, minimal_point, id"),
+        @Index(name = "idx_lab_work_row_discipline_hardest", columnList = "discipline_id, difficulty_rank, minimal_point, id"),
+        @Index(name = "idx_lab_work_row_author_name", columnList = "author_name"),
+        @Index(name = "idx_lab_work_row_discipline_name", columnList = "discipline_name"),
+        @Index(name = "idx_lab_work_row_author_id", columnList = "author_id"),
+        @Index(name = "idx_lab_work_row_coordinates_id", columnList = "coordinates_id")
+})
+@Getter @NoArgsConstructor
+public class LabWorkRow {
+
+    @Id
+    private Long id;
+
+    // carries the cascading foreign key to lab_work only, never loaded
+    @Getter(AccessLevel.NONE)
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_lab_work_row_lab_work"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private LabWork labWork;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(length = 7529)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Difficulty difficulty;
+
+    @Column(name = "difficulty_rank", nullable = false)
+    private int difficultyRank;
+
+    @Column(name = "minimal_point", nullable = false)
+    private Long minimalPoint;
+
+    @Column(name = "creation_date", nullable = false)
+    private ZonedDateTime creationDate;
+
+    @Column(name = "coordinates_id", nullable = false)
+    private Long coordinatesId;
+
+    @Column(name = "coordinates_x")
+    private Float coordinatesX;
+
+    @Column(name = "coordinates_y", nullable = false)
+    private float coordinatesY;
+
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(name = "author_name")
+    private String authorName;
+
+    @Column(name = "discipline_id")
+    private Long disciplineId;
+
+    @Column(name = "discipline_name")
+    private String disciplineName;
+}
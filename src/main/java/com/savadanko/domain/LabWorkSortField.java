@@ -0,0 +1,42 @@
+package com.savadanko.domain;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Columns of the table view ({@link LabWorkRow}) it can be sorted by.
+ * Every field is backed by a composite (column, id) index, so keyset pages are index range scans.
+ */
+public enum LabWorkSortField {
+    ID("id"),
+    NAME("name"),
+    MINIMAL_POINT("minimalPoint"),
+    CREATION_DATE("creationDate");
+
+    private final String attribute;
+
+    LabWorkSortField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public Comparable<?> valueOf(LabWorkRow row) {
+        return switch (this) {
+            case ID -> row.getId();
+            case NAME -> row.getName();
+            case MINIMAL_POINT -> row.getMinimalPoint();
+            case CREATION_DATE -> row.getCreationDate();
+        };
+    }
+
+    public Comparable<?> parse(String raw) {
+        return switch (this) {
+            case ID -> Long.valueOf(raw);
+            case NAME -> raw;
+            case MINIMAL_POINT -> Long.valueOf(raw);
+            case CREATION_DATE -> ZonedDateTime.parse(raw);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.savadanko.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One shard of the running totals over {@code lab_work}; the totals are the sum over all rows.
+ * Maintained by {@code LabWorkStatsService} in the same transaction as every LabWork write.
+ */
+@Entity
+@Table(name = "lab_work_summary")
+@Getter @Setter @NoArgsConstructor
+public class LabWorkSummary {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "minimal_point_sum", nullable = false)
+    private long minimalPointSum;
+
+    @Column(name = "lab_work_count", nullable = false)
+    private long labWorkCount;
+}
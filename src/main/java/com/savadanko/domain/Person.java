@@ -7,9 +7,20 @@ import jakarta.validation.constraints.Positive;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "person")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// location_id backs the guarded delete of a location and the foreign key check behind it
+@Table(name = "person", indexes = {
+        @Index(name = "idx_person_name", columnList = "name"),
+        @Index(name = "idx_person_location_id", columnList = "location_id")
+})
 @Getter @Setter @NoArgsConstructor
 public class Person {
 
@@ -17,6 +28,11 @@ public class Person {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank
     @Column(nullable = false)
     private String name;
@@ -0,0 +1,28 @@
+package com.savadanko.domain.dto;
+
+import com.savadanko.domain.ChangeType;
+
+import java.util.List;
+
+/**
+ * Change pushed to subscribers. {@code ids} is null when the change touched
+ * too many (or unknown) rows to list; {@code count} is always the number of rows affected.
+ */
+public record ChangeEventDTO(
+        String entity,
+        ChangeType type,
+        List<Long> ids,
+        long count
+) {
+    public static ChangeEventDTO of(Class<?> entity, ChangeType type, Long id) {
+        return new ChangeEventDTO(entity.getSimpleName(), type, List.of(id), 1);
+    }
+
+    public static ChangeEventDTO of(Class<?> entity, ChangeType type, List<Long> ids) {
+        return new ChangeEventDTO(entity.getSimpleName(), type, List.copyOf(ids), ids.size());
+    }
+
+    public static ChangeEventDTO bulk(Class<?> entity, ChangeType type, long count) {
+        return new ChangeEventDTO(entity.getSimpleName(), type, null, count);
+    }
+}
@@ -1,3 +0,0 @@
-package com.savadanko.domain.dto;
-
-public record DeleteResultDTO(int deleted) {}
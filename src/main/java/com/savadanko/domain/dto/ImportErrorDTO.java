@@ -0,0 +1,3 @@
+package com.savadanko.domain.dto;
+
+public record ImportErrorDTO(long row, String message) {}
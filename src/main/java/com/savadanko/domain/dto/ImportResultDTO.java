@@ -0,0 +1,9 @@
+package com.savadanko.domain.dto;
+
+import java.util.List;
+
+public record ImportResultDTO(
+        long imported,
+        long failed,
+        List<ImportErrorDTO> errors
+) {}
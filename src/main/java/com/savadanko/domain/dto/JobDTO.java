@@ -0,0 +1,18 @@
+package com.savadanko.domain.dto;
+
+import com.savadanko.domain.JobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record JobDTO(
+        UUID id,
+        String type,
+        JobStatus status,
+        Long total,
+        long affected,
+        String error,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt
+) {}
@@ -0,0 +1,8 @@
+package com.savadanko.domain.dto;
+
+import java.util.List;
+
+public record LabWorkPageDTO(
+        List<LabWorkDTO> items,
+        String nextCursor
+) {}
@@ -0,0 +1,11 @@
+package com.savadanko.domain.dto;
+
+/**
+ * Highlights are HTML-escaped text with matches wrapped in {@code <mark>}.
+ */
+public record LabWorkSearchHitDTO(
+        LabWorkDTO labWork,
+        double rank,
+        String nameHighlight,
+        String descriptionHighlight
+) {}
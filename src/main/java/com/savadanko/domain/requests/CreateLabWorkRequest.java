@@ -4,11 +4,12 @@ import com.savadanko.domain.Difficulty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 public record CreateLabWorkRequest(
         @NotBlank String name,
         @NotNull Long coordinatesId,
-        String description,
+        @Size(max = 7529) String description,
         @NotNull Difficulty difficulty,
         @Positive Long minimalPoint,
         Long authorId,
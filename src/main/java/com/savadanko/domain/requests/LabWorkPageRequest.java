@@ -0,0 +1,19 @@
+package com.savadanko.domain.requests;
+
+import com.savadanko.domain.LabWorkSortField;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keyset page of the LabWork table: exact-match filters on the string columns,
+ * sort column/direction and the opaque cursor returned with the previous page.
+ */
+public record LabWorkPageRequest(
+        int size,
+        String cursor,
+        LabWorkSortField sort,
+        Sort.Direction direction,
+        String name,
+        String description,
+        String authorName,
+        String disciplineName
+) {}
@@ -1,11 +1,12 @@
 package com.savadanko.domain.requests;
 
 import com.savadanko.domain.Difficulty;
+import jakarta.validation.constraints.Size;
 
 public record UpdateLabWorkRequest(
         String name,
         Long coordinatesId,
-        String description,
+        @Size(max = 7529) String description,
         Difficulty difficulty,
         Long minimalPoint,
         Long authorId,
@@ -2,15 +2,20 @@ package com.savadanko.exceptions;
 
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import java.sql.SQLException;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, Object> validation(MethodArgumentNotValidException ex) {
@@ -23,10 +28,26 @@ public class GlobalExceptionHandler {
         return Map.of("error", "Validation failed", "fields", fields);
     }
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Map<String, Object> concurrentModification(ObjectOptimisticLockingFailureException ex) {
+        return Map.of("error", "Resource was modified by someone else", "entity", String.valueOf(ex.getPersistentClassName()));
+    }
+
+    // a reference committed between a guarded delete's check and its commit still trips the foreign key
     @ExceptionHandler(DataIntegrityViolationException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public Map<String, Object> integrity(DataIntegrityViolationException ex) {
-        return Map.of("error", "Data integrity violation", "detail", ex.getMostSpecificCause().getMessage());
+    public ResponseEntity<Map<String, Object>> integrity(DataIntegrityViolationException ex) {
+        HttpStatus status = isForeignKeyViolation(ex) ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status)
+                .body(Map.of("error", "Data integrity violation", "detail", ex.getMostSpecificCause().getMessage()));
+    }
+
+    /** Also used by the PATCH paths, which answer a dangling new reference with 404 instead. */
+    public static boolean isForeignKeyViolation(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && FOREIGN_KEY_VIOLATION.equals(sql.getSQLState())) return true;
+        }
+        return false;
     }
 }
 
@@ -0,0 +1,31 @@
+package com.savadanko.repository;
+
+import com.savadanko.domain.AuthorLabWorkCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface AuthorLabWorkCountRepository extends JpaRepository<AuthorLabWorkCount, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "author_lab_work_count"))
+    @Query(nativeQuery = true, value = """
+       insert into author_lab_work_count (author_id, lab_work_count)
+       values (:authorId, :delta)
+       on conflict (author_id) do update
+         set lab_work_count = author_lab_work_count.lab_work_count + excluded.lab_work_count
+       """)
+    void add(@Param("authorId") Long authorId, @Param("delta") long delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "author_lab_work_count"))
+    @Query(nativeQuery = true, value = "delete from author_lab_work_count where lab_work_count = 0")
+    int deleteZeroCounts();
+
+    @Query("select coalesce(sum(c.labWorkCount), 0) from AuthorLabWorkCount c where c.authorId > :authorId")
+    long sumByAuthorIdGreaterThan(@Param("authorId") Long authorId);
+}
@@ -0,0 +1,27 @@
+package com.savadanko.repository;
+
+import com.savadanko.domain.CollectionVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CollectionVersionRepository extends JpaRepository<CollectionVersion, CollectionVersion.Key> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "collection_version"))
+    @Query(nativeQuery = true, value = """
+       insert into collection_version (name, shard, version) values (:name, :shard, 1)
+       on conflict (name, shard) do update set version = collection_version.version + 1
+       """)
+    void bump(@Param("name") String name, @Param("shard") int shard);
+
+    @Query("select v.name, sum(v.version) from CollectionVersion v where v.name in :names group by v.name")
+    List<Object[]> sumByName(@Param("names") Collection<String> names);
+}
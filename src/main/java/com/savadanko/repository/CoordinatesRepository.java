@@ -2,7 +2,26 @@ package com.savadanko.repository;
 
 import com.savadanko.domain.Coordinates;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Set;
 
 public interface CoordinatesRepository extends JpaRepository<Coordinates, Long> {
-}
+    @Query("select c.id from Coordinates c where c.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
+    /** Deletes the row unless lab_work.coordinates_id points at it; see {@link com.savadanko.domain.DeleteOutcome}. */
+    @Query(nativeQuery = true, value = """
+       with deleted as (
+           delete from coordinates t
+           where t.id = :id and not exists (select 1 from lab_work r where r.coordinates_id = t.id)
+           returning t.id
+       )
+       select case when exists (select 1 from deleted) then 'DELETED'
+                   when exists (select 1 from coordinates where id = :id) then 'REFERENCED'
+                   else 'NOT_FOUND' end
+       """)
+    String deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -2,7 +2,26 @@ package com.savadanko.repository;
 
 import com.savadanko.domain.Discipline;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Set;
 
 public interface DisciplineRepository extends JpaRepository<Discipline, Long> {
-}
+    @Query("select d.id from Discipline d where d.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
+    /** Deletes the row unless lab_work.discipline_id points at it; see {@link com.savadanko.domain.DeleteOutcome}. */
+    @Query(nativeQuery = true, value = """
+       with deleted as (
+           delete from discipline t
+           where t.id = :id and not exists (select 1 from lab_work r where r.discipline_id = t.id)
+           returning t.id
+       )
+       select case when exists (select 1 from deleted) then 'DELETED'
+                   when exists (select 1 from discipline where id = :id) then 'REFERENCED'
+                   else 'NOT_FOUND' end
+       """)
+    String deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -1,39 +1,153 @@
 package com.savadanko.repository;
 
 import com.savadanko.domain.LabWork;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LabWorkRepository extends JpaRepository<LabWork, Long> {
-    boolean existsByCoordinatesId(Long coordinatesId);
-    boolean existsByDisciplineId(Long disciplineId);
-    boolean existsByAuthorId(Long authorId);
 
-    @Modifying
-    @Query("delete from LabWork l where l.minimalPoint = :mp")
-    int deleteByMinimalPoint(@Param("mp") int minimalPoint);
+    /** Versions of a lab work and of every row its full representation embeds. */
+    interface GraphVersions {
+        Long getVersion();
+        Long getCoordinatesVersion();
+        Long getAuthorVersion();
+        Long getLocationVersion();
+        Long getDisciplineVersion();
+    }
+
+    @Query("""
+       select l.version as version, c.version as coordinatesVersion, a.version as authorVersion,
+              loc.version as locationVersion, d.version as disciplineVersion
+       from LabWork l
+       join l.coordinates c
+       left join l.author a
+       left join a.location loc
+       left join l.discipline d
+       where l.id = :id
+       """)
+    Optional<GraphVersions> findGraphVersionsById(@Param("id") Long id);
+
+    /** One full-text hit; highlights wrap matches in chr(2) ... chr(3). */
+    interface SearchHit {
+        Long getId();
+        Double getRank();
+        String getNameHighlight();
+        String getDescriptionHighlight();
+    }
+
+    // ranks every match through the GIN index, but builds the (expensive) headlines for the top rows only
+    @Query(value = """
+       select t.id, t.rank,
+              ts_headline('russian', t.name, t.q,
+                          'HighlightAll=true, StartSel=' || chr(2) || ', StopSel=' || chr(3)) as "nameHighlight",
+              ts_headline('russian', coalesce(t.description, ''), t.q,
+                          'MaxFragments=2, MinWords=8, MaxWords=24, FragmentDelimiter=" … ", StartSel='
+                          || chr(2) || ', StopSel=' || chr(3)) as "descriptionHighlight"
+       from (
+           select l.id, l.name, l.description, q, ts_rank_cd(l.search_vector, q, 32) as rank
+           from lab_work l, websearch_to_tsquery('russian', :q) q
+           where l.search_vector @@ q
+           order by rank desc, l.id
+           limit :limit
+       ) t
+       order by t.rank desc, t.id
+       """, nativeQuery = true)
+    List<SearchHit> search(@Param("q") String q, @Param("limit") int limit);
+
+    @Query("""
+       select l from LabWork l
+       join fetch l.coordinates
+       left join fetch l.author a
+       left join fetch a.location
+       left join fetch l.discipline
+       """)
+    List<LabWork> findAllFull();
+
+    @Query("""
+       select l from LabWork l
+       join fetch l.coordinates
+       left join fetch l.author a
+       left join fetch a.location
+       left join fetch l.discipline
+       where l.id = :id
+       """)
+    Optional<LabWork> findFullById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+       select l from LabWork l
+       join fetch l.coordinates
+       left join fetch l.author a
+       left join fetch a.location
+       left join fetch l.discipline
+       order by l.id
+       """)
+    Stream<LabWork> streamAllFull();
+
+    /** What the running stats need from a deleted lab work. */
+    interface DeletedLabWork {
+        Long getMinimalPoint();
+        Long getAuthorId();
+    }
+
+    // The delete ... returning statements below run as queries, not updates: @Modifying would execute
+    // them through executeUpdate, which has no result set and only allows an int or void return. The
+    // spaces still name what they touch (lab_work_row cascades), so auto-flush stays scoped to those tables.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work, lab_work_row"))
+    @Query(nativeQuery = true, value = """
+       delete from lab_work where id = :id
+       returning minimal_point as "minimalPoint", author_id as "authorId"
+       """)
+    Optional<DeletedLabWork> deleteByIdReturning(@Param("id") Long id);
+
+    // returning author ids lets the running per-author counts be adjusted without a second scan
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work, lab_work_row"))
+    @Query(nativeQuery = true, value = """
+       delete from lab_work
+       where id in (select id from lab_work where minimal_point = :mp limit :limit)
+       returning author_id
+       """)
+    List<Long> deleteChunkByMinimalPointReturningAuthorIds(@Param("mp") long minimalPoint, @Param("limit") int limit);
+
+    long countByMinimalPoint(Long minimalPoint);
 
     @Query("select coalesce(sum(l.minimalPoint), 0) from LabWork l")
     long sumMinimalPoint();
 
-    @Query("select count(l) from LabWork l where l.author is not null and l.author.id > :authorId")
-    long countByAuthorIdGreaterThan(@Param("authorId") Long authorId);
+    @Query("select l.author.id, count(l) from LabWork l where l.author is not null group by l.author.id")
+    List<Object[]> countGroupedByAuthor();
 
     @Query("""
        select l from LabWork l
-       order by 
+       left join fetch l.author
+       left join fetch l.discipline
+       order by l.difficultyRank desc, l.minimalPoint desc, l.id desc
+       """)
+    List<LabWork> findHardest(Pageable pageable);
+
+    @Modifying
+    @Query("""
+       update LabWork l set l.difficultyRank =
          case l.difficulty
-           when com.savadanko.domain.Difficulty.HOPELESS then 4
-           when com.savadanko.domain.Difficulty.INSANE   then 3
-           when com.savadanko.domain.Difficulty.EASY     then 2
+           when com.savadanko.domain.Difficulty.HOPELESS  then 4
+           when com.savadanko.domain.Difficulty.INSANE    then 3
+           when com.savadanko.domain.Difficulty.EASY      then 2
            when com.savadanko.domain.Difficulty.VERY_EASY then 1
-         end desc,
-         l.minimalPoint desc, l.id desc
+         end
+       where l.difficultyRank = 0
        """)
-    List<LabWork> findHardest(Pageable pageable);
+    int backfillDifficultyRank();
 }
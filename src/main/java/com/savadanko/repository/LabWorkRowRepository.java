@@ -0,0 +1,131 @@
+package com.savadanko.repository;
+
+import com.savadanko.domain.LabWorkRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LabWorkRowRepository extends JpaRepository<LabWorkRow, Long>, LabWorkRowRepositoryCustom {
+
+    String ROW_COLUMNS = """
+            id, name, description, difficulty, difficulty_rank, minimal_point, creation_date,
+            coordinates_id, coordinates_x, coordinates_y, author_id, author_name, discipline_id, discipline_name""";
+
+    String ROW_SELECT = """
+            select l.id, l.name, l.description, l.difficulty, l.difficulty_rank, l.minimal_point, l.creation_date,
+                   l.coordinates_id, c.x, c.y, l.author_id, p.name, l.discipline_id, d.name
+            from lab_work l
+            join coordinates c on c.id = l.coordinates_id
+            left join person p on p.id = l.author_id
+            left join discipline d on d.id = l.discipline_id
+            """;
+
+    @Query("""
+       select r from LabWorkRow r
+       order by r.difficultyRank desc, r.minimalPoint desc, r.id desc
+       """)
+    List<LabWorkRow> findHardest(Pageable pageable);
+
+    @Query("""
+       select r from LabWorkRow r
+       where r.disciplineId = :disciplineId
+       order by r.difficultyRank desc, r.minimalPoint desc, r.id desc
+       """)
+    List<LabWorkRow> findHardestInDiscipline(@Param("disciplineId") Long disciplineId, Pageable pageable);
+
+    @Query("select r from LabWorkRow r where r.coordinatesId in (:ids) order by r.id")
+    List<LabWorkRow> findByCoordinatesIds(@Param("ids") Collection<Long> ids, Pageable pageable);
+
+    @Query("""
+       select r from LabWorkRow r
+       where r.coordinatesX between :minX and :maxX and r.coordinatesY between :minY and :maxY
+       order by r.id
+       """)
+    List<LabWorkRow> findInBox(@Param("minX") float minX, @Param("minY") float minY,
+                               @Param("maxX") float maxX, @Param("maxY") float maxY, Pageable pageable);
+
+    /**
+     * Share-locks the coordinates, author and discipline of the given lab works, so a concurrent
+     * rename either commits before the following {@link #upsert} reads the names or waits for it.
+     */
+    @Query(value = """
+       with c as (select id from coordinates
+                  where id in (select coordinates_id from lab_work where id in (:ids)) for share),
+            p as (select id from person
+                  where id in (select author_id from lab_work where id in (:ids)) for share),
+            d as (select id from discipline
+                  where id in (select discipline_id from lab_work where id in (:ids)) for share)
+       select (select count(*) from c) + (select count(*) from p) + (select count(*) from d)
+       """, nativeQuery = true)
+    long lockReferences(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work_row"))
+    @Query(value = "insert into lab_work_row (" + ROW_COLUMNS + ") " + ROW_SELECT + """
+       where l.id in (:ids)
+       on conflict (id) do update set
+           name = excluded.name, description = excluded.description, difficulty = excluded.difficulty,
+           difficulty_rank = excluded.difficulty_rank, minimal_point = excluded.minimal_point,
+           creation_date = excluded.creation_date, coordinates_id = excluded.coordinates_id,
+           coordinates_x = excluded.coordinates_x, coordinates_y = excluded.coordinates_y,
+           author_id = excluded.author_id, author_name = excluded.author_name,
+           discipline_id = excluded.discipline_id, discipline_name = excluded.discipline_name
+       """, nativeQuery = true)
+    int upsert(@Param("ids") Collection<Long> ids);
+
+    /** Rows for lab works inserted with ids above {@code afterId} (the JDBC bulk import). */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work_row"))
+    @Query(value = "insert into lab_work_row (" + ROW_COLUMNS + ") " + ROW_SELECT + """
+       where l.id > :afterId
+       on conflict (id) do nothing
+       """, nativeQuery = true)
+    int insertAfter(@Param("afterId") long afterId);
+
+    /** Rows for lab works that have none, e.g. every lab work on the first start with the read model. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work_row"))
+    @Query(value = "insert into lab_work_row (" + ROW_COLUMNS + ") " + ROW_SELECT + """
+       where not exists (select 1 from lab_work_row r where r.id = l.id)
+       """, nativeQuery = true)
+    int insertMissing();
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work_row"))
+    @Query(value = """
+       update lab_work_row r set author_name = p.name
+       from person p
+       where p.id = :personId and r.author_id = p.id and r.author_name is distinct from p.name
+       """, nativeQuery = true)
+    int refreshAuthorName(@Param("personId") Long personId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work_row"))
+    @Query(value = """
+       update lab_work_row r set discipline_name = d.name
+       from discipline d
+       where d.id = :disciplineId and r.discipline_id = d.id and r.discipline_name is distinct from d.name
+       """, nativeQuery = true)
+    int refreshDisciplineName(@Param("disciplineId") Long disciplineId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work_row"))
+    @Query(value = """
+       update lab_work_row r set coordinates_x = c.x, coordinates_y = c.y
+       from coordinates c
+       where c.id = :coordinatesId and r.coordinates_id = c.id
+         and (r.coordinates_x is distinct from c.x or r.coordinates_y <> c.y)
+       """, nativeQuery = true)
+    int refreshCoordinates(@Param("coordinatesId") Long coordinatesId);
+
+    @Query("select max(l.id) from LabWork l")
+    Long findMaxLabWorkId();
+}
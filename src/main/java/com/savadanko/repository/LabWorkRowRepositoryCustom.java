@@ -0,0 +1,15 @@
+package com.savadanko.repository;
+
+import com.savadanko.domain.LabWorkRow;
+import com.savadanko.domain.requests.LabWorkPageRequest;
+
+import java.util.List;
+
+public interface LabWorkRowRepositoryCustom {
+
+    /**
+     * Keyset page: rows strictly after ({@code afterValue}, {@code afterId}) in the requested order.
+     * Author and discipline names are columns of the read model, so filters need no joins.
+     */
+    List<LabWorkRow> findPage(LabWorkPageRequest req, Comparable<?> afterValue, Long afterId, int limit);
+}
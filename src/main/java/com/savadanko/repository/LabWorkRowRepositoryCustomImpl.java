@@ -0,0 +1,57 @@
+package com.savadanko.repository;
+
+import com.savadanko.domain.LabWorkRow;
+import com.savadanko.domain.LabWorkSortField;
+import com.savadanko.domain.requests.LabWorkPageRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class LabWorkRowRepositoryCustomImpl implements LabWorkRowRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<LabWorkRow> findPage(LabWorkPageRequest req, Comparable<?> afterValue, Long afterId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<LabWorkRow> q = cb.createQuery(LabWorkRow.class);
+        Root<LabWorkRow> l = q.from(LabWorkRow.class);
+
+        List<Predicate> where = new ArrayList<>();
+        if (req.name() != null)           where.add(cb.equal(l.get("name"), req.name()));
+        if (req.description() != null)    where.add(cb.equal(l.get("description"), req.description()));
+        if (req.authorName() != null)     where.add(cb.equal(l.get("authorName"), req.authorName()));
+        if (req.disciplineName() != null) where.add(cb.equal(l.get("disciplineName"), req.disciplineName()));
+
+        boolean asc = req.direction() == Sort.Direction.ASC;
+        boolean byId = req.sort() == LabWorkSortField.ID;
+        Path<Comparable> sortPath = l.get(req.sort().attribute());
+        Path<Long> id = l.get("id");
+
+        if (afterId != null) {
+            Predicate idAfter = asc ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+            if (byId || afterValue == null) {
+                where.add(idAfter);
+            } else {
+                Comparable v = afterValue;
+                Predicate valueAfter = asc ? cb.greaterThan(sortPath, v) : cb.lessThan(sortPath, v);
+                where.add(cb.or(valueAfter, cb.and(cb.equal(sortPath, v), idAfter)));
+            }
+        }
+
+        q.select(l).where(where.toArray(Predicate[]::new));
+        if (byId) {
+            q.orderBy(asc ? cb.asc(id) : cb.desc(id));
+        } else {
+            q.orderBy(asc ? cb.asc(sortPath) : cb.desc(sortPath), asc ? cb.asc(id) : cb.desc(id));
+        }
+
+        return em.createQuery(q).setMaxResults(limit).getResultList();
+    }
+}
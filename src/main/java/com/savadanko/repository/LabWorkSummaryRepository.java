@@ -0,0 +1,34 @@
+package com.savadanko.repository;
+
+import com.savadanko.domain.LabWorkSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface LabWorkSummaryRepository extends JpaRepository<LabWorkSummary, Integer> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lab_work_summary"))
+    @Query(nativeQuery = true, value = """
+       insert into lab_work_summary (id, minimal_point_sum, lab_work_count)
+       values (:shard, :sum, :count)
+       on conflict (id) do update
+         set minimal_point_sum = lab_work_summary.minimal_point_sum + excluded.minimal_point_sum,
+             lab_work_count    = lab_work_summary.lab_work_count    + excluded.lab_work_count
+       """)
+    void add(@Param("shard") int shard, @Param("sum") long sumDelta, @Param("count") long countDelta);
+
+    /** Held until the end of the transaction; false while another reconcile holds it. */
+    @Query(nativeQuery = true, value = "select pg_try_advisory_xact_lock(hashtext('lab_work_summary'))")
+    boolean tryLockForReconcile();
+
+    @Query("select coalesce(sum(s.minimalPointSum), 0) from LabWorkSummary s")
+    long totalMinimalPointSum();
+
+    @Query("select coalesce(sum(s.labWorkCount), 0) from LabWorkSummary s")
+    long totalLabWorkCount();
+}
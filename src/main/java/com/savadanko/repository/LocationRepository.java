@@ -2,7 +2,21 @@ package com.savadanko.repository;
 
 import com.savadanko.domain.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface LocationRepository extends JpaRepository<Location, Long> {
-}
 
+    /** Deletes the row unless person.location_id points at it; see {@link com.savadanko.domain.DeleteOutcome}. */
+    @Query(nativeQuery = true, value = """
+       with deleted as (
+           delete from location t
+           where t.id = :id and not exists (select 1 from person r where r.location_id = t.id)
+           returning t.id
+       )
+       select case when exists (select 1 from deleted) then 'DELETED'
+                   when exists (select 1 from location where id = :id) then 'REFERENCED'
+                   else 'NOT_FOUND' end
+       """)
+    String deleteIfUnreferenced(@Param("id") Long id);
+}
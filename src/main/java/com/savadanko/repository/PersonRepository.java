@@ -2,8 +2,35 @@ package com.savadanko.repository;
 
 import com.savadanko.domain.Person;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface PersonRepository extends JpaRepository<Person, Long> {
-    boolean existsByLocationId(Long locationId);
-}
 
+    @Query("select p from Person p left join fetch p.location")
+    List<Person> findAllWithLocation();
+
+    @Query("select p from Person p left join fetch p.location where p.id = :id")
+    Optional<Person> findWithLocationById(@Param("id") Long id);
+
+    @Query("select p.id from Person p where p.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /** Deletes the row unless lab_work.author_id points at it; see {@link com.savadanko.domain.DeleteOutcome}. */
+    @Query(nativeQuery = true, value = """
+       with deleted as (
+           delete from person t
+           where t.id = :id and not exists (select 1 from lab_work r where r.author_id = t.id)
+           returning t.id
+       )
+       select case when exists (select 1 from deleted) then 'DELETED'
+                   when exists (select 1 from person where id = :id) then 'REFERENCED'
+                   else 'NOT_FOUND' end
+       """)
+    String deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -0,0 +1,156 @@
+package com.savadanko.repository;
+
+import com.savadanko.domain.Color;
+import com.savadanko.domain.Country;
+import com.savadanko.domain.Difficulty;
+import com.savadanko.domain.dto.*;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Read-only R2DBC queries producing the same DTO shapes as the JPA services. Rows are emitted
+ * as the driver decodes them, so a slow consumer slows the cursor down instead of buffering.
+ */
+@Repository
+public class ReactiveReadRepository {
+
+    private static final String LAB_WORK_ROW = """
+            select l.id, l.name, l.description, l.difficulty, l.minimal_point, l.creation_date,
+                   l.coordinates_id, l.author_id, l.author_name, l.discipline_id, l.discipline_name
+            from lab_work_row l
+            """;
+
+    private final DatabaseClient db;
+
+    public ReactiveReadRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    public Flux<LabWorkDTO> findLabWorks(long afterId, int limit) {
+        return db.sql(LAB_WORK_ROW + " where l.id > :afterId order by l.id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveReadRepository::labWork)
+                .all();
+    }
+
+    public Mono<LabWorkFullDTO> findLabWorkFull(long id) {
+        return db.sql("""
+                        select l.id, l.name, l.description, l.difficulty, l.minimal_point, l.creation_date,
+                               c.id as c_id, c.x as c_x, c.y as c_y,
+                               p.id as p_id, p.name as p_name, p.eye_color as p_eye_color, p.hair_color as p_hair_color,
+                               p.weight as p_weight, p.nationality as p_nationality,
+                               loc.id as loc_id, loc.name as loc_name, loc.x as loc_x, loc.y as loc_y,
+                               d.id as d_id, d.name as d_name, d.practice_hours as d_practice_hours,
+                               d.labs_count as d_labs_count
+                        from lab_work l
+                        join coordinates c on c.id = l.coordinates_id
+                        left join person p on p.id = l.author_id
+                        left join location loc on loc.id = p.location_id
+                        left join discipline d on d.id = l.discipline_id
+                        where l.id = :id
+                        """)
+                .bind("id", id)
+                .map(ReactiveReadRepository::labWorkFull)
+                .one();
+    }
+
+    public Flux<PersonDTO> findPersons() {
+        return db.sql("""
+                        select p.id, p.name, p.eye_color, p.hair_color, p.weight, p.nationality,
+                               p.location_id, loc.name as location_name
+                        from person p
+                        left join location loc on loc.id = p.location_id
+                        order by p.id
+                        """)
+                .map(r -> new PersonDTO(
+                        r.get("id", Long.class),
+                        r.get("name", String.class),
+                        enumOf(Color.class, r.get("eye_color", String.class)),
+                        enumOf(Color.class, r.get("hair_color", String.class)),
+                        r.get("weight", Double.class),
+                        enumOf(Country.class, r.get("nationality", String.class)),
+                        r.get("location_id", Long.class),
+                        r.get("location_name", String.class)))
+                .all();
+    }
+
+    public Flux<DisciplineDTO> findDisciplines() {
+        return db.sql("select id, name, practice_hours, labs_count from discipline order by id")
+                .map(r -> new DisciplineDTO(
+                        r.get("id", Long.class),
+                        r.get("name", String.class),
+                        r.get("practice_hours", Long.class),
+                        r.get("labs_count", Long.class)))
+                .all();
+    }
+
+    private static LabWorkDTO labWork(Readable r) {
+        return new LabWorkDTO(
+                r.get("id", Long.class),
+                r.get("name", String.class),
+                r.get("description", String.class),
+                enumOf(Difficulty.class, r.get("difficulty", String.class)),
+                r.get("minimal_point", Long.class),
+                zoned(r.get("creation_date", OffsetDateTime.class)),
+                r.get("coordinates_id", Long.class),
+                r.get("author_id", Long.class),
+                r.get("author_name", String.class),
+                r.get("discipline_id", Long.class),
+                r.get("discipline_name", String.class));
+    }
+
+    private static LabWorkFullDTO labWorkFull(Readable r) {
+        CoordinatesDTO coordinates = new CoordinatesDTO(
+                r.get("c_id", Long.class), r.get("c_x", Float.class), r.get("c_y", Float.class));
+
+        PersonFullDTO author = null;
+        Long authorId = r.get("p_id", Long.class);
+        if (authorId != null) {
+            Long locationId = r.get("loc_id", Long.class);
+            LocationDTO location = locationId == null ? null : new LocationDTO(
+                    locationId, r.get("loc_name", String.class),
+                    r.get("loc_x", Double.class), r.get("loc_y", Integer.class));
+            author = new PersonFullDTO(
+                    authorId,
+                    r.get("p_name", String.class),
+                    enumOf(Color.class, r.get("p_eye_color", String.class)),
+                    enumOf(Color.class, r.get("p_hair_color", String.class)),
+                    r.get("p_weight", Double.class),
+                    enumOf(Country.class, r.get("p_nationality", String.class)),
+                    location);
+        }
+
+        Long disciplineId = r.get("d_id", Long.class);
+        DisciplineDTO discipline = disciplineId == null ? null : new DisciplineDTO(
+                disciplineId, r.get("d_name", String.class),
+                r.get("d_practice_hours", Long.class), r.get("d_labs_count", Long.class));
+
+        return new LabWorkFullDTO(
+                r.get("id", Long.class),
+                r.get("name", String.class),
+                r.get("description", String.class),
+                enumOf(Difficulty.class, r.get("difficulty", String.class)),
+                r.get("minimal_point", Long.class),
+                zoned(r.get("creation_date", OffsetDateTime.class)),
+                coordinates,
+                author,
+                discipline);
+    }
+
+    // same zone Hibernate hands back for ZonedDateTime columns
+    private static ZonedDateTime zoned(OffsetDateTime t) {
+        return t == null ? null : t.atZoneSameInstant(ZoneId.systemDefault());
+    }
+
+    private static <E extends Enum<E>> E enumOf(Class<E> type, String name) {
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+}
@@ -0,0 +1,164 @@
+package com.savadanko.service;
+
+import com.savadanko.domain.ChangeType;
+import com.savadanko.domain.dto.ChangeEventDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed changes to SSE subscribers.
+ * <p>
+ * Services publish {@link ChangeEventDTO}s as application events; they are collected only after
+ * the transaction commits and coalesced per (entity, type) every {@link #FLUSH_INTERVAL_MS} ms,
+ * so a burst of writes becomes one event per kind. Each subscriber has its own bounded queue
+ * drained on a small executor: a slow client overflows its queue and is told to resync instead of
+ * blocking writers or other subscribers.
+ */
+@Service
+public class ChangeBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeBroadcaster.class);
+
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 256;
+    private static final int MAX_IDS_PER_EVENT = 1000;
+    private static final int SENDER_THREADS = 4;
+
+    private final List<ChangeEventDTO> pending = new ArrayList<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+
+    public ChangeBroadcaster(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.senders = Executors.newFixedThreadPool(SENDER_THREADS, virtualThreads
+                ? Thread.ofVirtual().name("sse-sender-", 0).factory()
+                : Thread.ofPlatform().name("sse-sender-", 0).daemon().factory());
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber s = new Subscriber(emitter);
+        subscribers.add(s);
+        emitter.onCompletion(() -> subscribers.remove(s));
+        emitter.onTimeout(() -> subscribers.remove(s));
+        emitter.onError(e -> subscribers.remove(s));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommitted(ChangeEventDTO event) {
+        synchronized (pending) {
+            pending.add(event);
+        }
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        List<ChangeEventDTO> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        List<ChangeEventDTO> coalesced = coalesce(batch);
+        for (Subscriber s : subscribers) {
+            s.enqueue(coalesced);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+    }
+
+    private List<ChangeEventDTO> coalesce(List<ChangeEventDTO> batch) {
+        Map<String, Accumulator> byKey = new LinkedHashMap<>();
+        for (ChangeEventDTO e : batch) {
+            byKey.computeIfAbsent(e.entity() + ':' + e.type(), k -> new Accumulator(e.entity(), e.type()))
+                    .add(e);
+        }
+        return byKey.values().stream().map(Accumulator::toEvent).toList();
+    }
+
+    private static final class Accumulator {
+        private final String entity;
+        private final ChangeType type;
+        private Set<Long> ids = new LinkedHashSet<>();
+        private long count;
+
+        Accumulator(String entity, ChangeType type) {
+            this.entity = entity;
+            this.type = type;
+        }
+
+        void add(ChangeEventDTO e) {
+            count += e.count();
+            if (ids == null) return;
+            if (e.ids() == null || ids.size() + e.ids().size() > MAX_IDS_PER_EVENT) {
+                ids = null;
+            } else {
+                ids.addAll(e.ids());
+            }
+        }
+
+        ChangeEventDTO toEvent() {
+            return new ChangeEventDTO(entity, type, ids == null ? null : List.copyOf(ids), count);
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChangeEventDTO> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(List<ChangeEventDTO> events) {
+            for (ChangeEventDTO e : events) {
+                if (!queue.offer(e)) {
+                    // too far behind: drop what it has not seen and make it reload
+                    queue.clear();
+                    queue.offer(new ChangeEventDTO(null, ChangeType.RESYNC, null, 0));
+                    break;
+                }
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                ChangeEventDTO e;
+                while ((e = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event().name("change").data(e));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Dropping SSE subscriber: {}", ex.getMessage());
+                subscribers.remove(this);
+                queue.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // an enqueue may have raced with the end of the loop
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
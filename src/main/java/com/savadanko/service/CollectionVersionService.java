@@ -0,0 +1,48 @@
+package com.savadanko.service;
+
+import com.savadanko.domain.dto.ChangeEventDTO;
+import com.savadanko.repository.CollectionVersionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregate versions for the list endpoints. Every change event published by a service bumps
+ * the counter of its entity type before the transaction commits, so a list ETag moves exactly
+ * when a committed write could have changed the list.
+ * <p>
+ * The counter has to live in the database for every instance to see it, but one row per type
+ * would queue all writers of that type at commit; each bump goes to one of {@link #SHARDS} rows
+ * picked at random and the tag reads their sum.
+ */
+@Service
+public class CollectionVersionService {
+
+    static final int SHARDS = 16;
+
+    private final CollectionVersionRepository repo;
+
+    public CollectionVersionService(CollectionVersionRepository repo) {
+        this.repo = repo;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onChange(ChangeEventDTO event) {
+        if (event.entity() != null) repo.bump(event.entity(), ThreadLocalRandom.current().nextInt(SHARDS));
+    }
+
+    @Transactional(readOnly = true)
+    public String etag(Class<?>... entities) {
+        List<String> names = Arrays.stream(entities).map(Class::getSimpleName).toList();
+        Map<String, Long> versions = repo.sumByName(names).stream()
+                .collect(Collectors.toMap(r -> (String) r[0], r -> (Long) r[1]));
+        return ETags.collection(names.stream().mapToLong(n -> versions.getOrDefault(n, 0L)).toArray());
+    }
+}
@@ -1,13 +1,18 @@
 package com.savadanko.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.savadanko.domain.ChangeType;
+import com.savadanko.domain.DeleteOutcome;
 import com.savadanko.domain.Coordinates;
+import com.savadanko.domain.dto.ChangeEventDTO;
 import com.savadanko.domain.dto.CoordinatesDTO;
 import com.savadanko.domain.requests.CreateCoordinatesRequest;
 import com.savadanko.domain.requests.UpdateCoordinatesRequest;
+import com.savadanko.exceptions.BadRequestException;
 import com.savadanko.exceptions.ConflictException;
 import com.savadanko.exceptions.NotFoundException;
 import com.savadanko.repository.CoordinatesRepository;
-import com.savadanko.repository.LabWorkRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,11 +22,23 @@ import java.util.List;
 public class CoordinatesService {
 
     private final CoordinatesRepository repo;
-    private final LabWorkRepository labWorkRepo;
+    private final ApplicationEventPublisher events;
+    private final EntityCacheLocks cacheLocks;
+    private final MergePatch mergePatch;
+    private final CollectionVersionService collectionVersions;
+    private final LabWorkReadModelService readModel;
+    private final SpatialIndexService spatial;
 
-    public CoordinatesService(CoordinatesRepository repo, LabWorkRepository labWorkRepo) {
+    public CoordinatesService(CoordinatesRepository repo, ApplicationEventPublisher events, EntityCacheLocks cacheLocks,
+                              MergePatch mergePatch, CollectionVersionService collectionVersions,
+                              LabWorkReadModelService readModel, SpatialIndexService spatial) {
         this.repo = repo;
-        this.labWorkRepo = labWorkRepo;
+        this.events = events;
+        this.cacheLocks = cacheLocks;
+        this.mergePatch = mergePatch;
+        this.collectionVersions = collectionVersions;
+        this.readModel = readModel;
+        this.spatial = spatial;
     }
 
     @Transactional(readOnly = true)
@@ -34,36 +51,85 @@ public class CoordinatesService {
     @Transactional(readOnly = true)
     public CoordinatesDTO findById(Long id) {
         Coordinates c = repo.findById(id)
-                .orElseThrow(() -> new com.savadanko.exceptions.NotFoundException("Coordinates not found"));
+                .orElseThrow(() -> new NotFoundException("Coordinates not found"));
         return toDto(c);
     }
 
+    /** Served from the spatial index alone: it holds everything a {@link CoordinatesDTO} has. */
+    public List<CoordinatesDTO> findWithin(double minX, double minY, double maxX, double maxY, int limit) {
+        if (minX > maxX || minY > maxY) throw new BadRequestException("minX/minY must not exceed maxX/maxY");
+        return spatial.coordinatesWithin(minX, minY, maxX, maxY, limit).stream()
+                .map(p -> new CoordinatesDTO(p.id(), (float) p.x(), (float) p.y()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        Coordinates c = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Coordinates not found"));
+        return ETags.of(id, c.getVersion());
+    }
+
+    @Transactional(readOnly = true)
+    public String listEtag() {
+        return collectionVersions.etag(Coordinates.class);
+    }
+
     @Transactional
     public CoordinatesDTO create(CreateCoordinatesRequest req) {
         Coordinates c = new Coordinates();
         c.setX(req.x());
         c.setY(req.y());
-        return toDto(repo.save(c));
+        Coordinates saved = repo.save(c);
+        spatial.onCoordinatesSaved(saved.getId(), saved.getX(), saved.getY());
+        events.publishEvent(ChangeEventDTO.of(Coordinates.class, ChangeType.CREATED, saved.getId()));
+        return toDto(saved);
     }
 
     @Transactional
-    public CoordinatesDTO update(Long id, UpdateCoordinatesRequest req) {
+    public CoordinatesDTO update(Long id, UpdateCoordinatesRequest req, Long expectedVersion) {
         Coordinates c = repo.findById(id)
-                .orElseThrow(() -> new com.savadanko.exceptions.NotFoundException("Coordinates not found"));
+                .orElseThrow(() -> new NotFoundException("Coordinates not found"));
+        ETags.requireVersion(expectedVersion, c.getVersion());
 
         if (req.x() != null) c.setX(req.x());
         if (req.y() != null) c.setY(req.y());
 
+        readModel.onCoordinatesChanged(id);
+        spatial.onCoordinatesSaved(id, c.getX(), c.getY());
+        events.publishEvent(ChangeEventDTO.of(Coordinates.class, ChangeType.UPDATED, id));
+        return toDto(c);
+    }
+
+    /** JSON Merge Patch; only the columns that actually change are written. */
+    @Transactional
+    public CoordinatesDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        Coordinates c = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Coordinates not found"));
+        ETags.requireVersion(expectedVersion, c.getVersion());
+        CreateCoordinatesRequest current = new CreateCoordinatesRequest(c.getX(), c.getY());
+        CreateCoordinatesRequest req = mergePatch.apply(current, patch, CreateCoordinatesRequest.class);
+        if (req.equals(current)) return toDto(c);
+
+        c.setX(req.x());
+        c.setY(req.y());
+
+        readModel.onCoordinatesChanged(id);
+        spatial.onCoordinatesSaved(id, c.getX(), c.getY());
+        events.publishEvent(ChangeEventDTO.of(Coordinates.class, ChangeType.UPDATED, id));
         return toDto(c);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!repo.existsById(id)) throw new NotFoundException("Coordinates not found");
-        if (labWorkRepo.existsByCoordinatesId(id)) {
-            throw new ConflictException("Coordinates are used by LabWork(s). Delete related LabWorks first.");
+        cacheLocks.lockForDelete(Coordinates.class, id);
+        switch (DeleteOutcome.valueOf(repo.deleteIfUnreferenced(id))) {
+            case NOT_FOUND -> throw new NotFoundException("Coordinates not found");
+            case REFERENCED -> throw new ConflictException("Coordinates are used by LabWork(s). Delete related LabWorks first.");
+            case DELETED -> { }
         }
-        repo.deleteById(id);
+        spatial.onCoordinatesDeleted(id);
+        events.publishEvent(ChangeEventDTO.of(Coordinates.class, ChangeType.DELETED, id));
     }
 
     private CoordinatesDTO toDto(Coordinates c) {
@@ -1,13 +1,17 @@
 package com.savadanko.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.savadanko.domain.ChangeType;
+import com.savadanko.domain.DeleteOutcome;
 import com.savadanko.domain.Discipline;
+import com.savadanko.domain.dto.ChangeEventDTO;
 import com.savadanko.domain.requests.CreateDisciplineRequest;
 import com.savadanko.domain.dto.DisciplineDTO;
 import com.savadanko.domain.requests.UpdateDisciplineRequest;
 import com.savadanko.exceptions.ConflictException;
 import com.savadanko.repository.DisciplineRepository;
 import com.savadanko.exceptions.NotFoundException;
-import com.savadanko.repository.LabWorkRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,11 +21,21 @@ import java.util.List;
 public class DisciplineService {
 
     private final DisciplineRepository repo;
-    private final LabWorkRepository labWorkRepo;
+    private final ApplicationEventPublisher events;
+    private final EntityCacheLocks cacheLocks;
+    private final MergePatch mergePatch;
+    private final CollectionVersionService collectionVersions;
+    private final LabWorkReadModelService readModel;
 
-    public DisciplineService(DisciplineRepository repo, LabWorkRepository labWorkRepo) {
+    public DisciplineService(DisciplineRepository repo, ApplicationEventPublisher events, EntityCacheLocks cacheLocks,
+                             MergePatch mergePatch, CollectionVersionService collectionVersions,
+                             LabWorkReadModelService readModel) {
         this.repo = repo;
-        this.labWorkRepo = labWorkRepo;
+        this.events = events;
+        this.cacheLocks = cacheLocks;
+        this.mergePatch = mergePatch;
+        this.collectionVersions = collectionVersions;
+        this.readModel = readModel;
     }
 
     @Transactional(readOnly = true)
@@ -38,6 +52,18 @@ public class DisciplineService {
         return toDto(d);
     }
 
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        Discipline d = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Discipline not found"));
+        return ETags.of(id, d.getVersion());
+    }
+
+    @Transactional(readOnly = true)
+    public String listEtag() {
+        return collectionVersions.etag(Discipline.class);
+    }
+
     @Transactional
     public DisciplineDTO create(CreateDisciplineRequest req) {
         Discipline d = new Discipline();
@@ -45,26 +71,51 @@ public class DisciplineService {
         d.setPracticeHours(req.practiceHours());
         d.setLabsCount(req.labsCount());
         Discipline saved = repo.save(d);
+        events.publishEvent(ChangeEventDTO.of(Discipline.class, ChangeType.CREATED, saved.getId()));
         return toDto(saved);
     }
 
     @Transactional
-    public DisciplineDTO update(Long id, UpdateDisciplineRequest req) {
+    public DisciplineDTO update(Long id, UpdateDisciplineRequest req, Long expectedVersion) {
         Discipline d = repo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Discipline not found"));
+        ETags.requireVersion(expectedVersion, d.getVersion());
         if (req.name() != null) d.setName(req.name());
         if (req.practiceHours() != null) d.setPracticeHours(req.practiceHours());
         if (req.labsCount() != null) d.setLabsCount(req.labsCount());
+        readModel.onDisciplineChanged(id);
+        events.publishEvent(ChangeEventDTO.of(Discipline.class, ChangeType.UPDATED, id));
+        return toDto(d);
+    }
+
+    /** JSON Merge Patch; only the columns that actually change are written. */
+    @Transactional
+    public DisciplineDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        Discipline d = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Discipline not found"));
+        ETags.requireVersion(expectedVersion, d.getVersion());
+        CreateDisciplineRequest current = new CreateDisciplineRequest(d.getName(), d.getPracticeHours(), d.getLabsCount());
+        CreateDisciplineRequest req = mergePatch.apply(current, patch, CreateDisciplineRequest.class);
+        if (req.equals(current)) return toDto(d);
+
+        d.setName(req.name());
+        d.setPracticeHours(req.practiceHours());
+        d.setLabsCount(req.labsCount());
+
+        if (!req.name().equals(current.name())) readModel.onDisciplineChanged(id);
+        events.publishEvent(ChangeEventDTO.of(Discipline.class, ChangeType.UPDATED, id));
         return toDto(d);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!repo.existsById(id)) throw new NotFoundException("Discipline not found");
-        if (labWorkRepo.existsByDisciplineId(id)) {
-            throw new ConflictException("Discipline is used by LabWork(s). Delete related LabWorks first.");
+        cacheLocks.lockForDelete(Discipline.class, id);
+        switch (DeleteOutcome.valueOf(repo.deleteIfUnreferenced(id))) {
+            case NOT_FOUND -> throw new NotFoundException("Discipline not found");
+            case REFERENCED -> throw new ConflictException("Discipline is used by LabWork(s). Delete related LabWorks first.");
+            case DELETED -> { }
         }
-        repo.deleteById(id);
+        events.publishEvent(ChangeEventDTO.of(Discipline.class, ChangeType.DELETED, id));
     }
 
     private DisciplineDTO toDto(Discipline d) {
@@ -0,0 +1,68 @@
+package com.savadanko.service;
+
+import com.savadanko.exceptions.PreconditionFailedException;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * ETags built from {@code @Version} columns.
+ * <p>
+ * A single resource is tagged {@code "<id>-<version>[-<related versions>]"}: its own version first,
+ * then the versions of the related rows its representation embeds (author name, location, ...).
+ * {@code If-Match} on PUT is checked against the own version only, so renaming an author
+ * does not block edits of that author's lab works.
+ * <p>
+ * Collections are tagged {@code W/"c-<collection versions>"}. They are only ever revalidated, never
+ * used as an {@code If-Match} precondition, and Tomcat leaves responses with a strong tag uncompressed.
+ */
+public final class ETags {
+
+    private ETags() {}
+
+    public static String of(Long id, Long version, Object... related) {
+        String base = id + "-" + version;
+        if (related.length == 0) return quote(base);
+        return quote(base + "-" + Arrays.stream(related)
+                .map(v -> v == null ? "x" : v.toString())
+                .collect(Collectors.joining(".")));
+    }
+
+    public static String collection(long... versions) {
+        return "W/" + quote("c-" + Arrays.stream(versions).mapToObj(Long::toString).collect(Collectors.joining(".")));
+    }
+
+    /**
+     * Own version carried by an {@code If-Match} header, or null when there is no precondition
+     * ({@code *} or no header). Anything that is not one of our tags for resource {@code id}
+     * can never match.
+     */
+    public static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.contains(",")) throw new PreconditionFailedException("If-Match with several tags is not supported");
+        if (tag.startsWith("W/")) throw new PreconditionFailedException("Weak tags never match If-Match");
+        String[] parts = tag.replace("\"", "").split("-");
+        Long version;
+        try {
+            version = Long.valueOf(parts[1]);
+        } catch (RuntimeException e) {
+            throw new PreconditionFailedException("Unknown entity tag " + tag);
+        }
+        if (!parts[0].equals(String.valueOf(id))) {
+            throw new PreconditionFailedException("Entity tag " + tag + " belongs to another resource");
+        }
+        return version;
+    }
+
+    public static void requireVersion(Long expected, Long actual) {
+        if (expected != null && !Objects.equals(expected, actual)) {
+            throw new PreconditionFailedException("Resource was modified by someone else (version " + actual + ")");
+        }
+    }
+
+    private static String quote(String s) {
+        return '"' + s + '"';
+    }
+}
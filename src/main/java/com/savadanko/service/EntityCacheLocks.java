@@ -0,0 +1,35 @@
+package com.savadanko.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Second-level cache bookkeeping for rows deleted by SQL instead of {@code EntityManager.remove},
+ * mirroring Hibernate's own delete action: the entry is soft-locked before the statement, so a
+ * concurrent load cannot put the row back, and released when the transaction completes. Only
+ * that one entry is touched; a native mutation without query spaces would drop every region.
+ */
+@Component
+class EntityCacheLocks {
+
+    private final EntityManager entityManager;
+
+    EntityCacheLocks(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    void lockForDelete(Class<?> type, Object id) {
+        EventSource session = entityManager.unwrap(EventSource.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(type);
+        if (!persister.canWriteToCache()) return;
+
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        Object key = cache.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cache.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, s) -> cache.unlockItem(s, key, lock));
+    }
+}
@@ -0,0 +1,158 @@
+package com.savadanko.service;
+
+import com.savadanko.domain.JobStatus;
+import com.savadanko.domain.dto.JobDTO;
+import com.savadanko.exceptions.NotFoundException;
+import com.savadanko.exceptions.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs long operations off the request thread on a small bounded executor and keeps their
+ * progress in memory. A job is expected to commit in chunks and to check
+ * {@link JobContext#isCancelled()} between them. Finished jobs are kept for {@link #RETENTION}.
+ */
+@Service
+public class JobService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    @FunctionalInterface
+    public interface Job {
+        void run(JobContext ctx) throws Exception;
+    }
+
+    public interface JobContext {
+        boolean isCancelled();
+        void setTotal(long total);
+        void addAffected(long affected);
+    }
+
+    private final Map<UUID, JobState> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public JobService(@Value("${app.jobs.threads:2}") int threads,
+                      @Value("${app.jobs.queue-capacity:32}") int queueCapacity,
+                      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // the pool size stays the concurrency bound either way; virtual workers only stop pinning carriers
+        ThreadFactory factory = virtualThreads
+                ? Thread.ofVirtual().name("job-worker-", 0).factory()
+                : Thread.ofPlatform().name("job-worker-", 0).daemon().factory();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory);
+    }
+
+    public JobDTO submit(String type, Job job) {
+        JobState state = new JobState(UUID.randomUUID(), type);
+        jobs.put(state.id, state);
+        try {
+            state.future = executor.submit(() -> run(state, job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(state.id);
+            throw new ServiceUnavailableException("Job queue is full, retry later");
+        }
+        return state.toDto();
+    }
+
+    public JobDTO get(UUID id) {
+        return find(id).toDto();
+    }
+
+    public List<JobDTO> findAll() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((JobState s) -> s.createdAt).reversed())
+                .map(JobState::toDto)
+                .toList();
+    }
+
+    public JobDTO cancel(UUID id) {
+        JobState state = find(id);
+        state.cancelRequested = true;
+        // a queued job never starts; a running one stops at its next chunk boundary
+        if (state.status == JobStatus.QUEUED && state.future != null && state.future.cancel(false)) {
+            state.finish(JobStatus.CANCELLED, null);
+        }
+        return state.toDto();
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictFinished() {
+        Instant cutoff = Instant.now().minus(RETENTION);
+        jobs.values().removeIf(s -> s.finishedAt != null && s.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(s -> s.cancelRequested = true);
+        executor.shutdown();
+    }
+
+    private void run(JobState state, Job job) {
+        if (state.cancelRequested) {
+            state.finish(JobStatus.CANCELLED, null);
+            return;
+        }
+        state.status = JobStatus.RUNNING;
+        state.startedAt = Instant.now();
+        try {
+            job.run(state);
+            state.finish(state.cancelRequested ? JobStatus.CANCELLED : JobStatus.SUCCEEDED, null);
+        } catch (Exception e) {
+            log.warn("Job {} ({}) failed", state.id, state.type, e);
+            state.finish(JobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private JobState find(UUID id) {
+        JobState state = jobs.get(id);
+        if (state == null) throw new NotFoundException("Job not found");
+        return state;
+    }
+
+    private static final class JobState implements JobContext {
+        final UUID id;
+        final String type;
+        final Instant createdAt = Instant.now();
+        final AtomicLong affected = new AtomicLong();
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile Long total;
+        volatile String error;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile boolean cancelRequested;
+        volatile Future<?> future;
+
+        JobState(UUID id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        @Override public boolean isCancelled() { return cancelRequested; }
+        @Override public void setTotal(long total) { this.total = total; }
+        @Override public void addAffected(long n) { affected.addAndGet(n); }
+
+        void finish(JobStatus status, String error) {
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        JobDTO toDto() {
+            return new JobDTO(id, type, status, total, affected.get(), error, createdAt, startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.savadanko.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.savadanko.domain.ChangeType;
+import com.savadanko.domain.LabWork;
+import com.savadanko.domain.dto.ChangeEventDTO;
+import com.savadanko.domain.dto.ImportErrorDTO;
+import com.savadanko.domain.dto.ImportResultDTO;
+import com.savadanko.domain.requests.CreateLabWorkRequest;
+import com.savadanko.exceptions.BadRequestException;
+import com.savadanko.repository.CoordinatesRepository;
+import com.savadanko.repository.DisciplineRepository;
+import com.savadanko.repository.PersonRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk LabWork import. Rows are read one by one from a JSON array or an NDJSON stream and
+ * processed in chunks: every chunk resolves its referenced ids with one {@code in (...)} query
+ * per association and is written with a single JDBC batch in its own transaction. Invalid rows are
+ * reported and skipped; they never abort the rest of the load.
+ */
+@Service
+public class LabWorkImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SQL = """
+            insert into lab_work (name, coordinates_id, creation_date, description,
+                                  difficulty, difficulty_rank, minimal_point, author_id, discipline_id)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final CoordinatesRepository coordinatesRepo;
+    private final PersonRepository personRepo;
+    private final DisciplineRepository disciplineRepo;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher events;
+    private final LabWorkStatsService stats;
+    private final LabWorkReadModelService readModel;
+    private final int chunkSize;
+
+    public LabWorkImportService(CoordinatesRepository coordinatesRepo,
+                                PersonRepository personRepo,
+                                DisciplineRepository disciplineRepo,
+                                JdbcTemplate jdbc,
+                                TransactionTemplate tx,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                ApplicationEventPublisher events,
+                                LabWorkStatsService stats,
+                                LabWorkReadModelService readModel,
+                                @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.coordinatesRepo = coordinatesRepo;
+        this.personRepo = personRepo;
+        this.disciplineRepo = disciplineRepo;
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.events = events;
+        this.stats = stats;
+        this.readModel = readModel;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportResultDTO importLabWorks(InputStream in) throws IOException {
+        Result result = new Result();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long rowNo = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken first = parser.nextToken();
+            boolean array = first == JsonToken.START_ARRAY;
+            JsonToken t = array ? parser.nextToken() : first;
+
+            while (t != null && t != JsonToken.END_ARRAY) {
+                rowNo++;
+                CreateLabWorkRequest req;
+                try {
+                    req = objectMapper.readValue(parser, CreateLabWorkRequest.class);
+                } catch (JsonProcessingException e) {
+                    // the stream position is unknown after a parse error, nothing after it can be trusted
+                    throw new BadRequestException("Malformed JSON at row " + rowNo + ": " + e.getOriginalMessage());
+                } catch (IOException e) {
+                    throw new BadRequestException("Could not read row " + rowNo + ": " + e.getMessage());
+                }
+                chunk.add(new Row(rowNo, req));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+                t = parser.nextToken();
+            }
+        }
+        if (!chunk.isEmpty()) importChunk(chunk, result);
+
+        return new ImportResultDTO(result.imported, result.failed, result.errors);
+    }
+
+    private void importChunk(List<Row> chunk, Result result) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            Set<ConstraintViolation<CreateLabWorkRequest>> violations = validator.validate(r.req);
+            if (violations.isEmpty()) {
+                valid.add(r);
+            } else {
+                result.fail(r.no, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+        }
+        if (valid.isEmpty()) return;
+
+        int inserted = tx.execute(status -> {
+            Set<Long> coordinates = existing(valid, CreateLabWorkRequest::coordinatesId, coordinatesRepo::findExistingIds);
+            Set<Long> authors = existing(valid, CreateLabWorkRequest::authorId, personRepo::findExistingIds);
+            Set<Long> disciplines = existing(valid, CreateLabWorkRequest::disciplineId, disciplineRepo::findExistingIds);
+
+            List<Object[]> batch = new ArrayList<>(valid.size());
+            List<Long> authorIds = new ArrayList<>(valid.size());
+            long minimalPointSum = 0;
+            OffsetDateTime now = OffsetDateTime.now();
+            for (Row r : valid) {
+                CreateLabWorkRequest q = r.req;
+                if (q.minimalPoint() == null) {
+                    result.fail(r.no, "minimalPoint: must not be null");
+                } else if (!coordinates.contains(q.coordinatesId())) {
+                    result.fail(r.no, "Coordinates not found");
+                } else if (q.authorId() != null && !authors.contains(q.authorId())) {
+                    result.fail(r.no, "Author not found");
+                } else if (q.disciplineId() != null && !disciplines.contains(q.disciplineId())) {
+                    result.fail(r.no, "Discipline not found");
+                } else {
+                    minimalPointSum += q.minimalPoint();
+                    authorIds.add(q.authorId());
+                    batch.add(new Object[]{
+                            q.name(), q.coordinatesId(), now, q.description(),
+                            q.difficulty().name(), q.difficulty().rank(), q.minimalPoint(), q.authorId(), q.disciplineId()
+                    });
+                }
+            }
+            if (batch.isEmpty()) return 0;
+            stats.onBulkCreated(minimalPointSum, authorIds);
+            long lastIdBefore = readModel.lastLabWorkId();
+            jdbc.batchUpdate(INSERT_SQL, batch, new int[]{
+                    Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP_WITH_TIMEZONE, Types.VARCHAR,
+                    Types.VARCHAR, Types.INTEGER, Types.BIGINT, Types.BIGINT, Types.BIGINT
+            });
+            readModel.onBulkCreated(lastIdBefore);
+            events.publishEvent(ChangeEventDTO.bulk(LabWork.class, ChangeType.CREATED, batch.size()));
+            return batch.size();
+        });
+        result.imported += inserted;
+    }
+
+    private Set<Long> existing(List<Row> rows,
+                               Function<CreateLabWorkRequest, Long> id,
+                               Function<Collection<Long>, Set<Long>> lookup) {
+        Set<Long> ids = rows.stream().map(r -> id.apply(r.req)).filter(Objects::nonNull).collect(Collectors.toSet());
+        return ids.isEmpty() ? Set.of() : lookup.apply(ids);
+    }
+
+    private record Row(long no, CreateLabWorkRequest req) {}
+
+    private static final class Result {
+        long imported;
+        long failed;
+        final List<ImportErrorDTO> errors = new ArrayList<>();
+
+        void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportErrorDTO(row, message));
+        }
+    }
+}
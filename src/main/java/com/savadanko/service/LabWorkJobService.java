@@ -0,0 +1,43 @@
+package com.savadanko.service;
+
+import com.savadanko.domain.dto.JobDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Background variants of the LabWork special operations. Every chunk is its own transaction,
+ * so row locks are held only briefly and interactive requests interleave with the job.
+ */
+@Service
+public class LabWorkJobService {
+
+    private final JobService jobs;
+    private final LabWorkService labWorkService;
+    private final int chunkSize;
+
+    public LabWorkJobService(JobService jobs,
+                             LabWorkService labWorkService,
+                             @Value("${app.jobs.chunk-size:1000}") int chunkSize) {
+        this.jobs = jobs;
+        this.labWorkService = labWorkService;
+        this.chunkSize = chunkSize;
+    }
+
+    public JobDTO submitDeleteAllByMinimalPoint(int minimalPoint) {
+        return jobs.submit("delete-by-minimal-point", ctx -> {
+            ctx.setTotal(labWorkService.countByMinimalPoint(minimalPoint));
+            int deleted;
+            do {
+                deleted = labWorkService.deleteChunkByMinimalPoint(minimalPoint, chunkSize);
+                ctx.addAffected(deleted);
+            } while (deleted == chunkSize && !ctx.isCancelled());
+        });
+    }
+
+    public JobDTO submitAssignTop10HardestToDiscipline(Long disciplineId) {
+        return jobs.submit("assign-top10-hardest-to-discipline", ctx -> {
+            ctx.setTotal(10);
+            ctx.addAffected(labWorkService.assignTop10HardestToDiscipline(disciplineId).size());
+        });
+    }
+}
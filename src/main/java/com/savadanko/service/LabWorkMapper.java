@@ -0,0 +1,94 @@
+package com.savadanko.service;
+
+import com.savadanko.domain.LabWork;
+import com.savadanko.domain.LabWorkRow;
+import com.savadanko.domain.dto.*;
+import org.springframework.stereotype.Component;
+
+/** Entity and read model row to DTO mapping of LabWork; touches no collaborator. */
+@Component
+public class LabWorkMapper {
+
+    LabWorkDTO toDto(LabWork lw) {
+        Long coordinatesId = lw.getCoordinates() != null ? lw.getCoordinates().getId() : null;
+        Long authorId = lw.getAuthor() != null ? lw.getAuthor().getId() : null;
+        String authorName = lw.getAuthor() != null ? lw.getAuthor().getName() : null;
+        Long disciplineId = lw.getDiscipline() != null ? lw.getDiscipline().getId() : null;
+        String disciplineName = lw.getDiscipline() != null ? lw.getDiscipline().getName() : null;
+
+        return new LabWorkDTO(
+                lw.getId(),
+                lw.getName(),
+                lw.getDescription(),
+                lw.getDifficulty(),
+                lw.getMinimalPoint(),
+                lw.getCreationDate(),
+                coordinatesId,
+                authorId,
+                authorName,
+                disciplineId,
+                disciplineName
+        );
+    }
+
+    LabWorkDTO toDto(LabWorkRow r) {
+        return new LabWorkDTO(
+                r.getId(),
+                r.getName(),
+                r.getDescription(),
+                r.getDifficulty(),
+                r.getMinimalPoint(),
+                r.getCreationDate(),
+                r.getCoordinatesId(),
+                r.getAuthorId(),
+                r.getAuthorName(),
+                r.getDisciplineId(),
+                r.getDisciplineName()
+        );
+    }
+
+    LabWorkFullDTO toFullDto(LabWork lw) {
+        CoordinatesDTO coord = null;
+        if (lw.getCoordinates() != null) {
+            var c = lw.getCoordinates();
+            coord = new CoordinatesDTO(c.getId(), c.getX(), c.getY());
+        }
+
+        DisciplineDTO disc = null;
+        if (lw.getDiscipline() != null) {
+            var d = lw.getDiscipline();
+            disc = new DisciplineDTO(d.getId(), d.getName(), d.getPracticeHours(), d.getLabsCount());
+        }
+
+        PersonFullDTO author = null;
+        if (lw.getAuthor() != null) {
+            var p = lw.getAuthor();
+            LocationDTO locDto = null;
+            if (p.getLocation() != null) {
+                var l = p.getLocation();
+                locDto = new LocationDTO(l.getId(), l.getName(), l.getX(), l.getY());
+            }
+            author = new PersonFullDTO(
+                    p.getId(),
+                    p.getName(),
+                    p.getEyeColor(),
+                    p.getHairColor(),
+                    p.getWeight(),
+                    p.getNationality(),
+                    locDto
+            );
+        }
+
+        return new LabWorkFullDTO(
+                lw.getId(),
+                lw.getName(),
+                lw.getDescription(),
+                lw.getDifficulty(),
+                lw.getMinimalPoint(),
+                lw.getCreationDate(),
+                coord,
+                author,
+                disc
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package com.savadanko.service;
+
+import com.savadanko.repository.LabWorkRowRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Keeps {@code lab_work_row} in step with the normalized tables inside the writer's transaction.
+ * Every change is one set-based statement: a lab work write re-derives its rows from the joins,
+ * a rename of a person, discipline or coordinates fans out to all rows that reference it.
+ * Deleted lab works drop their rows through the foreign key.
+ */
+@Service
+public class LabWorkReadModelService {
+
+    private static final Logger log = LoggerFactory.getLogger(LabWorkReadModelService.class);
+
+    private final LabWorkRowRepository repo;
+    private final EntityManager entityManager;
+
+    public LabWorkReadModelService(LabWorkRowRepository repo, EntityManager entityManager) {
+        this.repo = repo;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onLabWorksChanged(Collection<Long> labWorkIds) {
+        if (labWorkIds.isEmpty()) return;
+        // the rows are derived by SQL from lab_work, so pending entity changes must be there first
+        entityManager.flush();
+        repo.lockReferences(labWorkIds);
+        repo.upsert(labWorkIds);
+    }
+
+    /** After the JDBC bulk import: every lab work with an id above {@code lastIdBefore} is new. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBulkCreated(long lastIdBefore) {
+        repo.insertAfter(lastIdBefore);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPersonChanged(Long personId) {
+        repo.refreshAuthorName(personId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onDisciplineChanged(Long disciplineId) {
+        repo.refreshDisciplineName(disciplineId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCoordinatesChanged(Long coordinatesId) {
+        repo.refreshCoordinates(coordinatesId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long lastLabWorkId() {
+        Long max = repo.findMaxLabWorkId();
+        return max != null ? max : 0L;
+    }
+
+    /** Fills rows for lab works written before the read model existed; after the difficulty rank backfill. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    @Transactional
+    public void backfill() {
+        int inserted = repo.insertMissing();
+        if (inserted > 0) log.info("Read model backfilled with {} lab work rows", inserted);
+    }
+}
@@ -1,55 +1,184 @@
 package com.savadanko.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.savadanko.domain.*;
 import com.savadanko.domain.dto.*;
 import com.savadanko.domain.requests.CreateLabWorkRequest;
+import com.savadanko.domain.requests.LabWorkPageRequest;
 import com.savadanko.domain.requests.UpdateLabWorkRequest;
+import com.savadanko.exceptions.BadRequestException;
+import com.savadanko.exceptions.GlobalExceptionHandler;
 import com.savadanko.exceptions.NotFoundException;
 import com.savadanko.repository.*;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LabWorkService {
 
+    private static final String CURSOR_SEP = "\u0000";
+    private static final int EXPORT_CLEAR_EVERY = 500;
+    // past this many coordinates in a region, a range scan of the read model beats an id list
+    private static final int MAX_REGION_COORDINATES = 1000;
+    private static final String CSV_HEADER =
+            "id,name,description,difficulty,minimalPoint,creationDate,"
+            + "coordinatesId,authorId,authorName,disciplineId,disciplineName\n";
+
     private final LabWorkRepository labWorkRepo;
     private final CoordinatesRepository coordinatesRepo;
     private final PersonRepository personRepo;
     private final DisciplineRepository disciplineRepo;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final LabWorkStatsService stats;
+    private final CollectionVersionService collectionVersions;
+    private final LabWorkRowRepository rowRepo;
+    private final LabWorkReadModelService readModel;
+    private final MergePatch mergePatch;
+    private final SpatialIndexService spatial;
+    private final LabWorkMapper mapper;
 
     public LabWorkService(LabWorkRepository labWorkRepo,
                           CoordinatesRepository coordinatesRepo,
                           PersonRepository personRepo,
-                          DisciplineRepository disciplineRepo) {
+                          DisciplineRepository disciplineRepo,
+                          EntityManager entityManager,
+                          ObjectMapper objectMapper,
+                          ApplicationEventPublisher events,
+                          LabWorkStatsService stats,
+                          CollectionVersionService collectionVersions,
+                          LabWorkRowRepository rowRepo,
+                          LabWorkReadModelService readModel,
+                          MergePatch mergePatch,
+                          SpatialIndexService spatial,
+                          LabWorkMapper mapper) {
         this.labWorkRepo = labWorkRepo;
         this.coordinatesRepo = coordinatesRepo;
         this.personRepo = personRepo;
         this.disciplineRepo = disciplineRepo;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.events = events;
+        this.stats = stats;
+        this.collectionVersions = collectionVersions;
+        this.rowRepo = rowRepo;
+        this.readModel = readModel;
+        this.mergePatch = mergePatch;
+        this.spatial = spatial;
+        this.mapper = mapper;
     }
 
     @Transactional(readOnly = true)
-    public List<LabWorkDTO> findAll() {
-        return labWorkRepo.findAll().stream().map(this::toDto).toList();
+    public LabWorkPageDTO findPage(LabWorkPageRequest req) {
+        Comparable<?> afterValue = null;
+        Long afterId = null;
+        if (req.cursor() != null && !req.cursor().isBlank()) {
+            String[] parts = decodeCursor(req.cursor());
+            if (!parts[0].equals(cursorScope(req))) {
+                throw new BadRequestException("Cursor was issued for a different sort, direction or filter");
+            }
+            try {
+                afterId = Long.valueOf(parts[1]);
+                afterValue = parts.length > 2 ? req.sort().parse(parts[2]) : null;
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Malformed cursor");
+            }
+        }
+
+        // one extra row tells whether there is a next page without a count(*)
+        List<LabWorkRow> rows = rowRepo.findPage(req, afterValue, afterId, req.size() + 1);
+        boolean hasMore = rows.size() > req.size();
+        if (hasMore) rows = rows.subList(0, req.size());
+
+        String next = hasMore ? encodeCursor(req, rows.get(rows.size() - 1)) : null;
+        return new LabWorkPageDTO(rows.stream().map(mapper::toDto).toList(), next);
     }
 
     @Transactional(readOnly = true)
     public LabWorkDTO findById(Long id) {
         LabWork lw = labWorkRepo.findById(id).orElseThrow(() -> new NotFoundException("LabWork not found"));
-        return toDto(lw);
+        return mapper.toDto(lw);
     }
 
     @Transactional(readOnly = true)
     public List<LabWorkFullDTO> findAllFull() {
-        return labWorkRepo.findAll().stream().map(this::toFullDto).toList();
+        return labWorkRepo.findAllFull().stream().map(mapper::toFullDto).toList();
     }
 
     @Transactional(readOnly = true)
     public LabWorkFullDTO findFullById(Long id) {
-        LabWork lw = labWorkRepo.findById(id).orElseThrow(() -> new NotFoundException("LabWork not found"));
-        return toFullDto(lw);
+        LabWork lw = labWorkRepo.findFullById(id).orElseThrow(() -> new NotFoundException("LabWork not found"));
+        return mapper.toFullDto(lw);
+    }
+
+    /** Tag of both the short and the full representation: they embed the same rows. */
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        LabWorkRepository.GraphVersions v = labWorkRepo.findGraphVersionsById(id)
+                .orElseThrow(() -> new NotFoundException("LabWork not found"));
+        return ETags.of(id, v.getVersion(), v.getCoordinatesVersion(), v.getAuthorVersion(),
+                v.getLocationVersion(), v.getDisciplineVersion());
+    }
+
+    @Transactional(readOnly = true)
+    public String listEtag() {
+        return collectionVersions.etag(LabWork.class, Person.class, Discipline.class);
+    }
+
+    @Transactional(readOnly = true)
+    public String fullListEtag() {
+        return collectionVersions.etag(LabWork.class, Coordinates.class, Person.class, Location.class, Discipline.class);
+    }
+
+    /**
+     * Writes every LabWork to {@code out} one row at a time from a server-side cursor.
+     * Rows are detached once written and the persistence context is cleared every
+     * {@link #EXPORT_CLEAR_EVERY} rows, so heap use does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) writer.write(CSV_HEADER);
+
+        try (Stream<LabWork> rows = labWorkRepo.streamAllFull()) {
+            int written = 0;
+            for (Iterator<LabWork> it = rows.iterator(); it.hasNext(); ) {
+                LabWork lw = it.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, mapper.toDto(lw));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(mapper.toFullDto(lw)));
+                    writer.write('\n');
+                }
+                entityManager.detach(lw);
+                if (++written % EXPORT_CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
     }
 
     @Transactional
@@ -76,12 +205,19 @@ public class LabWorkService {
             lw.setDiscipline(discipline);
         }
 
-        return toDto(labWorkRepo.save(lw));
+        LabWork saved = labWorkRepo.save(lw);
+        stats.onCreated(saved.getMinimalPoint(), req.authorId());
+        readModel.onLabWorksChanged(List.of(saved.getId()));
+        events.publishEvent(ChangeEventDTO.of(LabWork.class, ChangeType.CREATED, saved.getId()));
+        return mapper.toDto(saved);
     }
 
     @Transactional
-    public LabWorkDTO update(Long id, UpdateLabWorkRequest req) {
+    public LabWorkDTO update(Long id, UpdateLabWorkRequest req, Long expectedVersion) {
         LabWork lw = labWorkRepo.findById(id).orElseThrow(() -> new NotFoundException("LabWork not found"));
+        ETags.requireVersion(expectedVersion, lw.getVersion());
+        long oldMinimalPoint = lw.getMinimalPoint();
+        Long oldAuthorId = lw.getAuthor() != null ? lw.getAuthor().getId() : null;
 
         if (req.name() != null)         lw.setName(req.name());
         if (req.description() != null)  lw.setDescription(req.description());
@@ -106,30 +242,100 @@ public class LabWorkService {
             lw.setDiscipline(discipline);
         }
 
-        return toDto(lw);
+        stats.onUpdated(oldMinimalPoint, oldAuthorId,
+                lw.getMinimalPoint(), lw.getAuthor() != null ? lw.getAuthor().getId() : null);
+        readModel.onLabWorksChanged(List.of(id));
+        events.publishEvent(ChangeEventDTO.of(LabWork.class, ChangeType.UPDATED, id));
+        return mapper.toDto(lw);
+    }
+
+    /**
+     * JSON Merge Patch. Only the columns that actually change are written, so patching minimalPoint
+     * leaves the (toasted) description untouched; new coordinates, author or discipline are attached
+     * as references and the foreign keys reject ids that do not exist. That is answered with 404
+     * naming the new reference(s), as PUT does for the same input.
+     */
+    @Transactional
+    public LabWorkDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        LabWork lw = labWorkRepo.findById(id).orElseThrow(() -> new NotFoundException("LabWork not found"));
+        ETags.requireVersion(expectedVersion, lw.getVersion());
+        CreateLabWorkRequest current = new CreateLabWorkRequest(lw.getName(), lw.getCoordinates().getId(),
+                lw.getDescription(), lw.getDifficulty(), lw.getMinimalPoint(),
+                lw.getAuthor() != null ? lw.getAuthor().getId() : null,
+                lw.getDiscipline() != null ? lw.getDiscipline().getId() : null);
+        CreateLabWorkRequest req = mergePatch.apply(current, patch, CreateLabWorkRequest.class);
+        if (req.equals(current)) return mapper.toDto(lw);
+
+        lw.setName(req.name());
+        lw.setDescription(req.description());
+        lw.setDifficulty(req.difficulty());
+        lw.setMinimalPoint(req.minimalPoint());
+        List<String> newReferences = new ArrayList<>(3);
+        if (!Objects.equals(req.coordinatesId(), current.coordinatesId())) {
+            lw.setCoordinates(coordinatesRepo.getReferenceById(req.coordinatesId()));
+            newReferences.add("Coordinates");
+        }
+        if (!Objects.equals(req.authorId(), current.authorId())) {
+            lw.setAuthor(req.authorId() != null ? personRepo.getReferenceById(req.authorId()) : null);
+            if (req.authorId() != null) newReferences.add("Author");
+        }
+        if (!Objects.equals(req.disciplineId(), current.disciplineId())) {
+            lw.setDiscipline(req.disciplineId() != null ? disciplineRepo.getReferenceById(req.disciplineId()) : null);
+            if (req.disciplineId() != null) newReferences.add("Discipline");
+        }
+        flushReferences(newReferences);
+
+        stats.onUpdated(current.minimalPoint(), current.authorId(), req.minimalPoint(), req.authorId());
+        readModel.onLabWorksChanged(List.of(id));
+        events.publishEvent(ChangeEventDTO.of(LabWork.class, ChangeType.UPDATED, id));
+        // the row was just re-derived from the joins, so the names come without touching the references
+        return mapper.toDto(rowRepo.findById(id).orElseThrow());
+    }
+
+    /** Surfaces a dangling reference now; only the references this write set can trip a foreign key. */
+    private void flushReferences(List<String> newReferences) {
+        try {
+            labWorkRepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (newReferences.isEmpty() || !GlobalExceptionHandler.isForeignKeyViolation(e)) throw e;
+            throw new NotFoundException(String.join(" or ", newReferences) + " not found");
+        }
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!labWorkRepo.existsById(id)) throw new NotFoundException("LabWork not found");
-        labWorkRepo.deleteById(id);
+        LabWorkRepository.DeletedLabWork deleted = labWorkRepo.deleteByIdReturning(id)
+                .orElseThrow(() -> new NotFoundException("LabWork not found"));
+        stats.onDeleted(deleted.getMinimalPoint(), deleted.getAuthorId());
+        events.publishEvent(ChangeEventDTO.of(LabWork.class, ChangeType.DELETED, id));
     }
 
+    @Transactional(readOnly = true)
+    public long countByMinimalPoint(int minimalPoint) {
+        return labWorkRepo.countByMinimalPoint((long) minimalPoint);
+    }
+
+    /** Deletes at most {@code limit} rows with the given minimalPoint, one chunk of the delete job. */
     @Transactional
-    public DeleteResultDTO deleteAllByMinimalPoint(int minimalPoint) {
-        int affected = labWorkRepo.deleteByMinimalPoint(minimalPoint);
-        return new DeleteResultDTO(affected);
+    public int deleteChunkByMinimalPoint(int minimalPoint, int limit) {
+        List<Long> authorIds = labWorkRepo.deleteChunkByMinimalPointReturningAuthorIds(minimalPoint, limit);
+        int affected = authorIds.size();
+        if (affected > 0) {
+            stats.onBulkDeleted((long) minimalPoint * affected, authorIds);
+            events.publishEvent(ChangeEventDTO.bulk(LabWork.class, ChangeType.DELETED, affected));
+        }
+        return affected;
     }
 
     @Transactional(readOnly = true)
     public SumDTO sumMinimalPoint() {
-        long sum = labWorkRepo.sumMinimalPoint();
+        long sum = stats.sumMinimalPoint();
         return new SumDTO(sum);
     }
 
     @Transactional(readOnly = true)
     public CountDTO countByAuthorIdGreaterThan(Long authorId) {
-        long cnt = labWorkRepo.countByAuthorIdGreaterThan(authorId);
+        long cnt = stats.countByAuthorIdGreaterThan(authorId);
         return new CountDTO(cnt);
     }
 
@@ -139,7 +345,9 @@ public class LabWorkService {
         LabWork lw = labWorkRepo.findById(labWorkId)
                 .orElseThrow(() -> new NotFoundException("LabWork not found"));
         lw.setDifficulty(decreaseEnum(lw.getDifficulty(), steps));
-        return toDto(lw);
+        readModel.onLabWorksChanged(List.of(labWorkId));
+        events.publishEvent(ChangeEventDTO.of(LabWork.class, ChangeType.UPDATED, labWorkId));
+        return mapper.toDto(lw);
     }
 
     private Difficulty decreaseEnum(Difficulty d, int steps) {
@@ -152,6 +360,68 @@ public class LabWorkService {
         return order.get(newIdx);
     }
 
+    /** Lab works whose coordinates lie in the closed box, by id. */
+    @Transactional(readOnly = true)
+    public List<LabWorkDTO> findWithin(double minX, double minY, double maxX, double maxY, int limit) {
+        if (minX > maxX || minY > maxY) throw new BadRequestException("minX/minY must not exceed maxX/maxY");
+        List<Long> coordinateIds = spatial.coordinatesWithin(minX, minY, maxX, maxY, MAX_REGION_COORDINATES + 1)
+                .stream().map(SpatialIndex.Point::id).toList();
+        if (coordinateIds.isEmpty()) return List.of();
+
+        PageRequest page = PageRequest.of(0, limit);
+        List<LabWorkRow> rows = coordinateIds.size() <= MAX_REGION_COORDINATES
+                ? rowRepo.findByCoordinatesIds(coordinateIds, page)
+                // coordinates are floats: narrow the box without letting it grow past the requested one
+                : rowRepo.findInBox(floatAtLeast(minX), floatAtLeast(minY), floatAtMost(maxX), floatAtMost(maxY), page);
+        return rows.stream().map(mapper::toDto).toList();
+    }
+
+    private static float floatAtLeast(double v) {
+        float f = (float) v;
+        return f < v ? Math.nextUp(f) : f;
+    }
+
+    private static float floatAtMost(double v) {
+        float f = (float) v;
+        return f > v ? Math.nextDown(f) : f;
+    }
+
+    @Transactional(readOnly = true)
+    public List<LabWorkDTO> findHardest(int limit, Long disciplineId) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<LabWorkRow> hardest = disciplineId == null
+                ? rowRepo.findHardest(page)
+                : rowRepo.findHardestInDiscipline(disciplineId, page);
+        return hardest.stream().map(mapper::toDto).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<LabWorkSearchHitDTO> search(String query, int limit) {
+        List<LabWorkRepository.SearchHit> hits = labWorkRepo.search(query, limit);
+        if (hits.isEmpty()) return List.of();
+        Map<Long, LabWorkRow> byId = rowRepo.findAllById(
+                        hits.stream().map(LabWorkRepository.SearchHit::getId).toList())
+                .stream().collect(Collectors.toMap(LabWorkRow::getId, r -> r));
+        return hits.stream()
+                .filter(h -> byId.containsKey(h.getId()))
+                .map(h -> new LabWorkSearchHitDTO(mapper.toDto(byId.get(h.getId())), h.getRank(),
+                        markHighlight(h.getNameHighlight()), markHighlight(h.getDescriptionHighlight())))
+                .toList();
+    }
+
+    /** ts_headline wraps matches in chr(2)/chr(3); the text itself is user input and gets escaped. */
+    private static String markHighlight(String headline) {
+        if (headline == null) return null;
+        return HtmlUtils.htmlEscape(headline).replace("\u0002", "<mark>").replace("\u0003", "</mark>");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    @Transactional
+    public void backfillDifficultyRank() {
+        labWorkRepo.backfillDifficultyRank();
+    }
+
     @Transactional
     public List<LabWorkDTO> assignTop10HardestToDiscipline(Long disciplineId) {
         Discipline disc = disciplineRepo.findById(disciplineId)
@@ -159,73 +429,53 @@ public class LabWorkService {
         var top10 = labWorkRepo.findHardest(PageRequest.of(0, 10));
         top10.forEach(l -> l.setDiscipline(disc));
         // persist через dirty checking
-        return top10.stream().map(this::toDto).toList();
-    }
-
-    private LabWorkDTO toDto(LabWork lw) {
-        Long coordinatesId = lw.getCoordinates() != null ? lw.getCoordinates().getId() : null;
-        Long authorId = lw.getAuthor() != null ? lw.getAuthor().getId() : null;
-        String authorName = lw.getAuthor() != null ? lw.getAuthor().getName() : null;
-        Long disciplineId = lw.getDiscipline() != null ? lw.getDiscipline().getId() : null;
-        String disciplineName = lw.getDiscipline() != null ? lw.getDiscipline().getName() : null;
-
-        return new LabWorkDTO(
-                lw.getId(),
-                lw.getName(),
-                lw.getDescription(),
-                lw.getDifficulty(),
-                lw.getMinimalPoint(),
-                lw.getCreationDate(),
-                coordinatesId,
-                authorId,
-                authorName,
-                disciplineId,
-                disciplineName
-        );
+        List<Long> ids = top10.stream().map(LabWork::getId).toList();
+        readModel.onLabWorksChanged(ids);
+        events.publishEvent(ChangeEventDTO.of(LabWork.class, ChangeType.UPDATED, ids));
+        return top10.stream().map(mapper::toDto).toList();
     }
 
-    private LabWorkFullDTO toFullDto(LabWork lw) {
-        CoordinatesDTO coord = null;
-        if (lw.getCoordinates() != null) {
-            var c = lw.getCoordinates();
-            coord = new CoordinatesDTO(c.getId(), c.getX(), c.getY());
+    private void writeCsvRow(Writer w, LabWorkDTO d) throws IOException {
+        Object[] cells = {
+                d.id(), d.name(), d.description(), d.difficulty(), d.minimalPoint(), d.creationDate(),
+                d.coordinatesId(), d.authorId(), d.authorName(), d.disciplineId(), d.disciplineName()
+        };
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) w.write(',');
+            if (cells[i] != null) w.write(csvEscape(cells[i].toString()));
         }
+        w.write('\n');
+    }
 
-        DisciplineDTO disc = null;
-        if (lw.getDiscipline() != null) {
-            var d = lw.getDiscipline();
-            disc = new DisciplineDTO(d.getId(), d.getName(), d.getPracticeHours(), d.getLabsCount());
-        }
+    private String csvEscape(String v) {
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) return v;
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
 
-        PersonFullDTO author = null;
-        if (lw.getAuthor() != null) {
-            var p = lw.getAuthor();
-            LocationDTO locDto = null;
-            if (p.getLocation() != null) {
-                var l = p.getLocation();
-                locDto = new LocationDTO(l.getId(), l.getName(), l.getX(), l.getY());
-            }
-            author = new PersonFullDTO(
-                    p.getId(),
-                    p.getName(),
-                    p.getEyeColor(),
-                    p.getHairColor(),
-                    p.getWeight(),
-                    p.getNationality(),
-                    locDto
-            );
-        }
+    /** A cursor only continues the listing it was issued for: same sort, direction and filters. */
+    private static String cursorScope(LabWorkPageRequest req) {
+        int filters = Objects.hash(req.name(), req.description(), req.authorName(), req.disciplineName());
+        return req.sort().name() + ':' + req.direction().name() + ':' + Integer.toHexString(filters);
+    }
 
-        return new LabWorkFullDTO(
-                lw.getId(),
-                lw.getName(),
-                lw.getDescription(),
-                lw.getDifficulty(),
-                lw.getMinimalPoint(),
-                lw.getCreationDate(),
-                coord,
-                author,
-                disc
-        );
+    private String encodeCursor(LabWorkPageRequest req, LabWorkRow last) {
+        LabWorkSortField sort = req.sort();
+        String raw = sort == LabWorkSortField.ID
+                ? cursorScope(req) + CURSOR_SEP + last.getId()
+                : cursorScope(req) + CURSOR_SEP + last.getId() + CURSOR_SEP + sort.valueOf(last);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed cursor");
+        }
+        // scope, id, value: value goes last so it may itself contain the separator
+        String[] parts = raw.split(CURSOR_SEP, 3);
+        if (parts.length < 2) throw new BadRequestException("Malformed cursor");
+        return parts;
     }
 }
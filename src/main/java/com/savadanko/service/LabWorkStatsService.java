@@ -0,0 +1,185 @@
+package com.savadanko.service;
+
+import com.savadanko.repository.AuthorLabWorkCountRepository;
+import com.savadanko.repository.LabWorkRepository;
+import com.savadanko.repository.LabWorkSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Running minimalPoint sum and per-author lab work counts, so the special operations
+ * never aggregate over {@code lab_work}.
+ * <p>
+ * Changes join the caller's transaction but are only collected there; they are written in one go
+ * just before it commits, so the counter rows stay locked for the commit alone. The sum is spread
+ * over {@link #SHARDS} rows picked at random, which keeps unrelated writers off each other's row.
+ * {@link #reconcile()} never blocks writers: it measures the drift between {@code lab_work} and
+ * the counters on one snapshot, where both reflect the same committed writes, and adds the
+ * difference as a delta, which later writers cannot invalidate. An advisory lock only keeps two
+ * instances from applying the same drift twice.
+ */
+@Service
+public class LabWorkStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(LabWorkStatsService.class);
+
+    static final int SHARDS = 16;
+
+    private final LabWorkSummaryRepository summaryRepo;
+    private final AuthorLabWorkCountRepository authorCountRepo;
+    private final LabWorkRepository labWorkRepo;
+    private final TransactionTemplate snapshotTx;
+    private final TransactionTemplate tx;
+
+    public LabWorkStatsService(LabWorkSummaryRepository summaryRepo,
+                               AuthorLabWorkCountRepository authorCountRepo,
+                               LabWorkRepository labWorkRepo,
+                               PlatformTransactionManager txManager) {
+        this.summaryRepo = summaryRepo;
+        this.authorCountRepo = authorCountRepo;
+        this.labWorkRepo = labWorkRepo;
+        this.snapshotTx = new TransactionTemplate(txManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCreated(long minimalPoint, Long authorId) {
+        pending().add(minimalPoint, 1).author(authorId, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onDeleted(long minimalPoint, Long authorId) {
+        pending().add(-minimalPoint, -1).author(authorId, -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUpdated(long oldMinimalPoint, Long oldAuthorId, long newMinimalPoint, Long newAuthorId) {
+        boolean authorChanged = !Objects.equals(oldAuthorId, newAuthorId);
+        if (oldMinimalPoint == newMinimalPoint && !authorChanged) return;
+        Pending p = pending().add(newMinimalPoint - oldMinimalPoint, 0);
+        if (authorChanged) p.author(oldAuthorId, -1).author(newAuthorId, 1);
+    }
+
+    /** {@code authorIds} holds one entry per affected row, null for rows without an author. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBulkCreated(long minimalPointSum, List<Long> authorIds) {
+        applyBulk(minimalPointSum, authorIds, 1);
+    }
+
+    /** {@code authorIds} holds one entry per affected row, null for rows without an author. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBulkDeleted(long minimalPointSum, List<Long> authorIds) {
+        applyBulk(-minimalPointSum, authorIds, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public long sumMinimalPoint() {
+        return summaryRepo.totalMinimalPointSum();
+    }
+
+    @Transactional(readOnly = true)
+    public long countByAuthorIdGreaterThan(Long authorId) {
+        return authorCountRepo.sumByAuthorIdGreaterThan(authorId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.stats.reconcile-cron:0 */15 * * * *}")
+    public void reconcile() {
+        snapshotTx.executeWithoutResult(snapshot -> {
+            // also the first statement, so the snapshot starts after any reconcile that held the lock
+            if (!summaryRepo.tryLockForReconcile()) return;
+            Drift drift = measureDrift();
+            if (drift.isEmpty()) return;
+            log.warn("LabWork stats drifted: sum {}, count {}, {} author(s); correcting",
+                    drift.minimalPointSum(), drift.count(), drift.byAuthor().size());
+            // applied in its own transaction: writing from the snapshot would conflict with writers
+            tx.executeWithoutResult(status -> {
+                write(drift.minimalPointSum(), drift.count(), drift.byAuthor());
+                authorCountRepo.deleteZeroCounts();
+            });
+        });
+    }
+
+    private Drift measureDrift() {
+        long sum = labWorkRepo.sumMinimalPoint() - summaryRepo.totalMinimalPointSum();
+        long count = labWorkRepo.count() - summaryRepo.totalLabWorkCount();
+        Map<Long, Long> byAuthor = new TreeMap<>();
+        labWorkRepo.countGroupedByAuthor().forEach(r -> byAuthor.merge((Long) r[0], (Long) r[1], Long::sum));
+        authorCountRepo.findAll().forEach(c -> byAuthor.merge(c.getAuthorId(), -c.getLabWorkCount(), Long::sum));
+        byAuthor.values().removeIf(n -> n == 0);
+        return new Drift(sum, count, byAuthor);
+    }
+
+    private void applyBulk(long minimalPointDelta, List<Long> authorIds, int sign) {
+        if (authorIds.isEmpty()) return;
+        Pending p = pending().add(minimalPointDelta, (long) sign * authorIds.size());
+        for (Long authorId : authorIds) p.author(authorId, sign);
+    }
+
+    /** The collector of the current transaction, registered on first use. */
+    private Pending pending() {
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            if (s instanceof Pending p) return p;
+        }
+        Pending p = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(p);
+        return p;
+    }
+
+    private void write(long minimalPointDelta, long countDelta, Map<Long, Long> byAuthor) {
+        if (minimalPointDelta != 0 || countDelta != 0) {
+            summaryRepo.add(ThreadLocalRandom.current().nextInt(SHARDS), minimalPointDelta, countDelta);
+        }
+        // ascending id order keeps concurrent writers from deadlocking on the count rows
+        byAuthor.forEach((authorId, n) -> {
+            if (n != 0) authorCountRepo.add(authorId, n);
+        });
+    }
+
+    private record Drift(long minimalPointSum, long count, Map<Long, Long> byAuthor) {
+        boolean isEmpty() {
+            return minimalPointSum == 0 && count == 0 && byAuthor.isEmpty();
+        }
+    }
+
+    private final class Pending implements TransactionSynchronization {
+        private long minimalPointSum;
+        private long count;
+        private final Map<Long, Long> byAuthor = new TreeMap<>();
+
+        Pending add(long minimalPointDelta, long countDelta) {
+            minimalPointSum += minimalPointDelta;
+            count += countDelta;
+            return this;
+        }
+
+        Pending author(Long authorId, long delta) {
+            if (authorId != null) byAuthor.merge(authorId, delta, Long::sum);
+            return this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(minimalPointSum, count, byAuthor);
+        }
+    }
+}
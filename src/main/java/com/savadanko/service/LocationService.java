@@ -1,27 +1,45 @@
 package com.savadanko.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.savadanko.domain.ChangeType;
+import com.savadanko.domain.DeleteOutcome;
 import com.savadanko.domain.Location;
+import com.savadanko.domain.dto.ChangeEventDTO;
 import com.savadanko.domain.requests.CreateLocationRequest;
 import com.savadanko.domain.dto.LocationDTO;
 import com.savadanko.domain.requests.UpdateLocationRequest;
 import com.savadanko.exceptions.ConflictException;
 import com.savadanko.repository.LocationRepository;
 import com.savadanko.exceptions.NotFoundException;
-import com.savadanko.repository.PersonRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class LocationService {
 
     private final LocationRepository repo;
-    private final PersonRepository personRepo;
+    private final ApplicationEventPublisher events;
+    private final EntityCacheLocks cacheLocks;
+    private final MergePatch mergePatch;
+    private final CollectionVersionService collectionVersions;
+    private final SpatialIndexService spatial;
 
-    public LocationService(LocationRepository repo, PersonRepository personRepo) {
+    public LocationService(LocationRepository repo, ApplicationEventPublisher events, EntityCacheLocks cacheLocks,
+                           MergePatch mergePatch, CollectionVersionService collectionVersions,
+                           SpatialIndexService spatial) {
         this.repo = repo;
-        this.personRepo = personRepo;
+        this.events = events;
+        this.cacheLocks = cacheLocks;
+        this.mergePatch = mergePatch;
+        this.collectionVersions = collectionVersions;
+        this.spatial = spatial;
     }
 
     @Transactional(readOnly = true)
@@ -38,6 +56,28 @@ public class LocationService {
         return toDto(loc);
     }
 
+    /** Nearest first, from the spatial index; the rows themselves are read by id. */
+    @Transactional(readOnly = true)
+    public List<LocationDTO> findNearest(double x, double y, int limit) {
+        List<Long> ids = spatial.nearestLocations(x, y, limit).stream().map(SpatialIndex.Point::id).toList();
+        Map<Long, Location> byId = repo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Location::getId, Function.identity()));
+        // a location deleted by another instance is in the index until the next resync
+        return ids.stream().map(byId::get).filter(Objects::nonNull).map(this::toDto).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        Location loc = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Location not found"));
+        return ETags.of(id, loc.getVersion());
+    }
+
+    @Transactional(readOnly = true)
+    public String listEtag() {
+        return collectionVersions.etag(Location.class);
+    }
+
     @Transactional
     public LocationDTO create(CreateLocationRequest req) {
         Location loc = new Location();
@@ -45,30 +85,55 @@ public class LocationService {
         loc.setX(req.x());
         loc.setY(req.y());
         Location saved = repo.save(loc);
+        spatial.onLocationSaved(saved.getId(), saved.getX(), saved.getY());
+        events.publishEvent(ChangeEventDTO.of(Location.class, ChangeType.CREATED, saved.getId()));
         return toDto(saved);
     }
 
     @Transactional
-    public LocationDTO update(Long id, UpdateLocationRequest req) {
+    public LocationDTO update(Long id, UpdateLocationRequest req, Long expectedVersion) {
         Location loc = repo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Location not found"));
+        ETags.requireVersion(expectedVersion, loc.getVersion());
 
         if (req.name() != null) loc.setName(req.name());
         if (req.x() != null)    loc.setX(req.x());
         if (req.y() != null)    loc.setY(req.y());
 
+        spatial.onLocationSaved(id, loc.getX(), loc.getY());
+        events.publishEvent(ChangeEventDTO.of(Location.class, ChangeType.UPDATED, id));
+        return toDto(loc);
+    }
+
+    /** JSON Merge Patch; only the columns that actually change are written. */
+    @Transactional
+    public LocationDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        Location loc = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Location not found"));
+        ETags.requireVersion(expectedVersion, loc.getVersion());
+        CreateLocationRequest current = new CreateLocationRequest(loc.getName(), loc.getX(), loc.getY());
+        CreateLocationRequest req = mergePatch.apply(current, patch, CreateLocationRequest.class);
+        if (req.equals(current)) return toDto(loc);
+
+        loc.setName(req.name());
+        loc.setX(req.x());
+        loc.setY(req.y());
+
+        spatial.onLocationSaved(id, loc.getX(), loc.getY());
+        events.publishEvent(ChangeEventDTO.of(Location.class, ChangeType.UPDATED, id));
         return toDto(loc);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!repo.existsById(id)) {
-            throw new NotFoundException("Location not found");
-        }
-        if (personRepo.existsByLocationId(id)) {
-            throw new ConflictException("Location is in use by one or more persons. Delete persons first.");
+        cacheLocks.lockForDelete(Location.class, id);
+        switch (DeleteOutcome.valueOf(repo.deleteIfUnreferenced(id))) {
+            case NOT_FOUND -> throw new NotFoundException("Location not found");
+            case REFERENCED -> throw new ConflictException("Location is in use by one or more persons. Delete persons first.");
+            case DELETED -> { }
         }
-        repo.deleteById(id);
+        spatial.onLocationDeleted(id);
+        events.publishEvent(ChangeEventDTO.of(Location.class, ChangeType.DELETED, id));
     }
 
     private LocationDTO toDto(Location l) {
@@ -0,0 +1,68 @@
+package com.savadanko.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.savadanko.exceptions.BadRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JSON Merge Patch (RFC 7386) applied to the create-request view of an entity: a member of the
+ * patch replaces the value, {@code null} clears it, an absent member keeps it. The views are flat
+ * records, so a member always replaces a field as a whole. The merged view is validated like a
+ * create request, so a patch cannot leave the entity in a state POST would reject.
+ */
+@Component
+public class MergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public MergePatch(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public <T extends Record> T apply(T current, JsonNode patch, Class<T> type) {
+        if (patch == null || !patch.isObject()) throw new BadRequestException("Merge patch must be a JSON object");
+        Set<String> fields = Arrays.stream(type.getRecordComponents())
+                .map(RecordComponent::getName)
+                .collect(Collectors.toSet());
+        for (Iterator<String> it = patch.fieldNames(); it.hasNext(); ) {
+            String field = it.next();
+            if (!fields.contains(field)) throw new BadRequestException("Unknown field: " + field);
+        }
+
+        ObjectNode view = objectMapper.valueToTree(current);
+        patch.properties().forEach(e -> view.set(e.getKey(), e.getValue()));
+        T merged;
+        try {
+            merged = objectMapper.readerFor(type)
+                    .with(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                    .readValue(view);
+        } catch (IOException e) {
+            throw new BadRequestException("Malformed merge patch");
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(merged);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException("Validation failed: " + violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return merged;
+    }
+}
@@ -1,62 +1,90 @@
 package com.savadanko.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.savadanko.domain.Location;
 import com.savadanko.domain.Person;
 import com.savadanko.domain.*;
+import com.savadanko.domain.dto.ChangeEventDTO;
 import com.savadanko.domain.dto.LocationDTO;
 import com.savadanko.domain.dto.PersonDTO;
 import com.savadanko.domain.dto.PersonFullDTO;
 import com.savadanko.domain.requests.CreatePersonRequest;
 import com.savadanko.domain.requests.UpdatePersonRequest;
 import com.savadanko.exceptions.ConflictException;
-import com.savadanko.repository.LabWorkRepository;
+import com.savadanko.exceptions.GlobalExceptionHandler;
 import com.savadanko.repository.LocationRepository;
 import com.savadanko.repository.PersonRepository;
 import com.savadanko.exceptions.NotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class PersonService {
 
     private final PersonRepository perRepo;
     private final LocationRepository locRepo;
-    private final LabWorkRepository labWorkRepo;
-
-    public PersonService(PersonRepository perRepo, LocationRepository locRepo, LabWorkRepository labWorkRepo) {
+    private final ApplicationEventPublisher events;
+    private final EntityCacheLocks cacheLocks;
+    private final MergePatch mergePatch;
+    private final CollectionVersionService collectionVersions;
+    private final LabWorkReadModelService readModel;
+
+    public PersonService(PersonRepository perRepo, LocationRepository locRepo, ApplicationEventPublisher events,
+                         EntityCacheLocks cacheLocks, MergePatch mergePatch,
+                         CollectionVersionService collectionVersions, LabWorkReadModelService readModel) {
         this.perRepo = perRepo;
         this.locRepo = locRepo;
-        this.labWorkRepo = labWorkRepo;
+        this.events = events;
+        this.cacheLocks = cacheLocks;
+        this.mergePatch = mergePatch;
+        this.collectionVersions = collectionVersions;
+        this.readModel = readModel;
     }
 
     @Transactional(readOnly = true)
     public List<PersonDTO> findAll() {
-        return perRepo.findAll().stream()
+        return perRepo.findAllWithLocation().stream()
                 .map(this::toDto)
                 .toList();
     }
 
     @Transactional(readOnly = true)
     public PersonDTO findById(Long id) {
-        Person p = perRepo.findById(id).orElseThrow(() -> new NotFoundException("Person not found"));
+        Person p = perRepo.findWithLocationById(id).orElseThrow(() -> new NotFoundException("Person not found"));
         return toDto(p);
     }
 
     @Transactional(readOnly = true)
     public List<PersonFullDTO> findAllFull() {
-        return perRepo.findAll().stream()
+        return perRepo.findAllWithLocation().stream()
                 .map(this::toFullDto)
                 .toList();
     }
 
     @Transactional(readOnly = true)
     public PersonFullDTO findFullById(Long id) {
-        Person p = perRepo.findById(id).orElseThrow(() -> new NotFoundException("Person not found"));
+        Person p = perRepo.findWithLocationById(id).orElseThrow(() -> new NotFoundException("Person not found"));
         return toFullDto(p);
     }
 
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        // both rows come from the second-level cache once warm
+        Person p = perRepo.findById(id).orElseThrow(() -> new NotFoundException("Person not found"));
+        Location loc = p.getLocation();
+        return ETags.of(id, p.getVersion(), loc != null ? loc.getVersion() : null);
+    }
+
+    @Transactional(readOnly = true)
+    public String listEtag() {
+        return collectionVersions.etag(Person.class, Location.class);
+    }
+
     @Transactional
     public PersonDTO create(CreatePersonRequest req) {
         Person p = new Person();
@@ -72,12 +100,15 @@ public class PersonService {
             p.setLocation(loc);
         }
 
-        return toDto(perRepo.save(p));
+        Person saved = perRepo.save(p);
+        events.publishEvent(ChangeEventDTO.of(Person.class, ChangeType.CREATED, saved.getId()));
+        return toDto(saved);
     }
 
     @Transactional
-    public PersonDTO update(Long id, UpdatePersonRequest req) {
+    public PersonDTO update(Long id, UpdatePersonRequest req, Long expectedVersion) {
         Person p = perRepo.findById(id).orElseThrow(() -> new NotFoundException("Person not found"));
+        ETags.requireVersion(expectedVersion, p.getVersion());
 
         if (req.name() != null)        p.setName(req.name());
         if (req.eyeColor() != null)    p.setEyeColor(req.eyeColor());
@@ -90,16 +121,55 @@ public class PersonService {
             p.setLocation(loc);
         }
 
+        readModel.onPersonChanged(id);
+        events.publishEvent(ChangeEventDTO.of(Person.class, ChangeType.UPDATED, id));
+        return toDto(p);
+    }
+
+    /**
+     * JSON Merge Patch; only the columns that actually change are written. A new location is
+     * attached as a reference, not loaded: the foreign key rejects an id that does not exist, which
+     * is answered with 404 "Location not found" as PUT does.
+     */
+    @Transactional
+    public PersonDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        Person p = perRepo.findById(id).orElseThrow(() -> new NotFoundException("Person not found"));
+        ETags.requireVersion(expectedVersion, p.getVersion());
+        CreatePersonRequest current = new CreatePersonRequest(p.getName(), p.getEyeColor(), p.getHairColor(),
+                p.getWeight(), p.getNationality(), p.getLocation() != null ? p.getLocation().getId() : null);
+        CreatePersonRequest req = mergePatch.apply(current, patch, CreatePersonRequest.class);
+        if (req.equals(current)) return toDto(p);
+
+        p.setName(req.name());
+        p.setEyeColor(req.eyeColor());
+        p.setHairColor(req.hairColor());
+        p.setWeight(req.weight());
+        p.setNationality(req.nationality());
+        if (!Objects.equals(req.locationId(), current.locationId())) {
+            p.setLocation(req.locationId() != null ? locRepo.getReferenceById(req.locationId()) : null);
+        }
+        try {
+            perRepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            // the location is the only reference a person has
+            if (!GlobalExceptionHandler.isForeignKeyViolation(e)) throw e;
+            throw new NotFoundException("Location not found");
+        }
+
+        if (!req.name().equals(current.name())) readModel.onPersonChanged(id);
+        events.publishEvent(ChangeEventDTO.of(Person.class, ChangeType.UPDATED, id));
         return toDto(p);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!perRepo.existsById(id)) throw new NotFoundException("Person not found");
-        if (labWorkRepo.existsByAuthorId(id)) {
-            throw new ConflictException("Person is used as LabWork author. Delete related LabWorks first.");
+        cacheLocks.lockForDelete(Person.class, id);
+        switch (DeleteOutcome.valueOf(perRepo.deleteIfUnreferenced(id))) {
+            case NOT_FOUND -> throw new NotFoundException("Person not found");
+            case REFERENCED -> throw new ConflictException("Person is used as LabWork author. Delete related LabWorks first.");
+            case DELETED -> { }
         }
-        perRepo.deleteById(id);
+        events.publishEvent(ChangeEventDTO.of(Person.class, ChangeType.DELETED, id));
     }
 
     private PersonDTO toDto(Person p) {
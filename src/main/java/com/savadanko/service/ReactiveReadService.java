@@ -0,0 +1,38 @@
+package com.savadanko.service;
+
+import com.savadanko.domain.dto.DisciplineDTO;
+import com.savadanko.domain.dto.LabWorkDTO;
+import com.savadanko.domain.dto.LabWorkFullDTO;
+import com.savadanko.domain.dto.PersonDTO;
+import com.savadanko.exceptions.NotFoundException;
+import com.savadanko.repository.ReactiveReadRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveReadService {
+
+    private final ReactiveReadRepository repo;
+
+    public ReactiveReadService(ReactiveReadRepository repo) {
+        this.repo = repo;
+    }
+
+    public Flux<LabWorkDTO> findLabWorks(long afterId, int limit) {
+        return repo.findLabWorks(afterId, limit);
+    }
+
+    public Mono<LabWorkFullDTO> findLabWorkFull(long id) {
+        return repo.findLabWorkFull(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("LabWork not found")));
+    }
+
+    public Flux<PersonDTO> findPersons() {
+        return repo.findPersons();
+    }
+
+    public Flux<DisciplineDTO> findDisciplines() {
+        return repo.findDisciplines();
+    }
+}
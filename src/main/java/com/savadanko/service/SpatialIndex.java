@@ -0,0 +1,398 @@
+package com.savadanko.service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory 2-d point index: a static KD-tree plus an overlay of recent changes.
+ * <p>
+ * The tree is a flat array of (id, x, y) ordered so that every sub-range {@code [lo, hi)} is a node
+ * whose median {@code (lo + hi) / 2} splits the rest on x (even depth) or y (odd depth); leaves of up
+ * to {@link #LEAF_SIZE} points are scanned. There are no node objects, so a million points take three
+ * primitive arrays and a query touches only the few cache lines on its path.
+ * <p>
+ * Writes do not touch the tree: an upsert or removal goes to the overlay, which shadows the tree entry
+ * with the same id. Queries scan the overlay linearly, so it is kept small: once it holds
+ * {@link #MAX_OVERLAY} entries, a background thread folds it into a fresh tree. Changes that arrive
+ * while a tree is being built stay in the overlay, because every change carries a sequence number and
+ * only those older than the build start are dropped.
+ */
+final class SpatialIndex {
+
+    record Point(long id, double x, double y) {}
+
+    private record Change(double x, double y, boolean removed, long seq) {}
+
+    static final int LEAF_SIZE = 8;
+    static final int MAX_OVERLAY = 1024;
+
+    private final String name;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    private Tree tree = Tree.EMPTY;
+    private final Map<Long, Change> overlay = new HashMap<>();
+    private long seq;
+    private volatile boolean ready;
+
+    SpatialIndex(String name) {
+        this.name = name;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    void put(long id, double x, double y) {
+        change(id, new Change(x, y, false, 0));
+    }
+
+    void remove(long id) {
+        change(id, new Change(0, 0, true, 0));
+    }
+
+    private void change(long id, Change c) {
+        int overlaySize;
+        lock.writeLock().lock();
+        try {
+            overlay.put(id, new Change(c.x, c.y, c.removed, ++seq));
+            overlaySize = overlay.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (overlaySize >= MAX_OVERLAY && compactionScheduled.compareAndSet(false, true)) {
+            Thread.ofPlatform().daemon().name("spatial-compact-" + name).start(() -> {
+                try {
+                    compact();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Replaces the content with what {@code loader} adds, e.g. a full read of the table. Changes made
+     * while it runs survive, so it is safe to call while the index is serving and being written to.
+     */
+    void reload(Consumer<Builder> loader) {
+        rebuilding.lock();
+        try {
+            long since = currentSeq();
+            Builder builder = new Builder();
+            loader.accept(builder);
+            install(builder.build(), since);
+            ready = true;
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    /** Folds the overlay into a new tree. */
+    void compact() {
+        if (!rebuilding.tryLock()) return; // a reload or compaction is already running
+        try {
+            Builder builder = new Builder();
+            long since;
+            lock.readLock().lock();
+            try {
+                since = seq;
+                tree.forEachLive(overlay, builder::add);
+                overlay.forEach((id, c) -> {
+                    if (!c.removed) builder.add(id, c.x, c.y);
+                });
+            } finally {
+                lock.readLock().unlock();
+            }
+            install(builder.build(), since);
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    private long currentSeq() {
+        lock.readLock().lock();
+        try {
+            return seq;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void install(Tree built, long since) {
+        lock.writeLock().lock();
+        try {
+            tree = built;
+            overlay.values().removeIf(c -> c.seq <= since);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Points inside the closed box, at most {@code limit}, in no particular order. */
+    List<Point> within(double minX, double minY, double maxX, double maxY, int limit) {
+        List<Point> out = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            tree.within(minX, minY, maxX, maxY, limit, overlay, out);
+            for (Map.Entry<Long, Change> e : overlay.entrySet()) {
+                if (out.size() >= limit) break;
+                Change c = e.getValue();
+                if (!c.removed && c.x >= minX && c.x <= maxX && c.y >= minY && c.y <= maxY) {
+                    out.add(new Point(e.getKey(), c.x, c.y));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return out;
+    }
+
+    /** The {@code k} points closest to (x, y), nearest first. */
+    List<Point> nearest(double x, double y, int k) {
+        Neighbours best = new Neighbours(k);
+        lock.readLock().lock();
+        try {
+            tree.nearest(x, y, overlay, best);
+            overlay.forEach((id, c) -> {
+                if (!c.removed) best.offer(id, c.x, c.y, sq(c.x - x) + sq(c.y - y));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return best.sorted();
+    }
+
+    private static double sq(double d) {
+        return d * d;
+    }
+
+    /** Collects points for a new tree in growable primitive arrays. */
+    static final class Builder {
+        private long[] ids = new long[1024];
+        private double[] xs = new double[1024];
+        private double[] ys = new double[1024];
+        private int size;
+
+        void add(long id, double x, double y) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            ids[size] = id;
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        Tree build() {
+            Tree t = new Tree(Arrays.copyOf(ids, size), Arrays.copyOf(xs, size), Arrays.copyOf(ys, size));
+            t.arrange(0, size, 0);
+            return t;
+        }
+    }
+
+    static final class Tree {
+
+        static final Tree EMPTY = new Tree(new long[0], new double[0], new double[0]);
+
+        private final long[] ids;
+        private final double[] xs;
+        private final double[] ys;
+
+        private Tree(long[] ids, double[] xs, double[] ys) {
+            this.ids = ids;
+            this.xs = xs;
+            this.ys = ys;
+        }
+
+        private double coord(int i, int depth) {
+            return (depth & 1) == 0 ? xs[i] : ys[i];
+        }
+
+        /** Puts the median of {@code [lo, hi)} on the split axis in the middle, then recurses into both halves. */
+        private void arrange(int lo, int hi, int depth) {
+            if (hi - lo <= LEAF_SIZE) return;
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, depth);
+            arrange(lo, mid, depth + 1);
+            arrange(mid + 1, hi, depth + 1);
+        }
+
+        /** Hoare quickselect on {@code [left, right]}: afterwards element {@code k} is in its sorted place. */
+        private void select(int left, int right, int k, int depth) {
+            while (right > left) {
+                double pivot = coord((left + right) >>> 1, depth);
+                int i = left, j = right;
+                while (i <= j) {
+                    while (coord(i, depth) < pivot) i++;
+                    while (coord(j, depth) > pivot) j--;
+                    if (i <= j) swap(i++, j--);
+                }
+                if (k <= j) right = j;
+                else if (k >= i) left = i;
+                else return;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+            double x = xs[a]; xs[a] = xs[b]; xs[b] = x;
+            double y = ys[a]; ys[a] = ys[b]; ys[b] = y;
+        }
+
+        void forEachLive(Map<Long, ?> shadowed, PointSink sink) {
+            for (int i = 0; i < ids.length; i++) {
+                if (shadowed.isEmpty() || !shadowed.containsKey(ids[i])) sink.add(ids[i], xs[i], ys[i]);
+            }
+        }
+
+        void within(double minX, double minY, double maxX, double maxY, int limit,
+                    Map<Long, ?> shadowed, List<Point> out) {
+            within(0, ids.length, 0, minX, minY, maxX, maxY, limit, shadowed, out);
+        }
+
+        private void within(int lo, int hi, int depth, double minX, double minY, double maxX, double maxY,
+                            int limit, Map<Long, ?> shadowed, List<Point> out) {
+            if (hi - lo <= LEAF_SIZE) {
+                for (int i = lo; i < hi && out.size() < limit; i++) {
+                    collect(i, minX, minY, maxX, maxY, shadowed, out);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double split = coord(mid, depth);
+            double min = (depth & 1) == 0 ? minX : minY;
+            double max = (depth & 1) == 0 ? maxX : maxY;
+            if (min <= split) within(lo, mid, depth + 1, minX, minY, maxX, maxY, limit, shadowed, out);
+            if (out.size() < limit) collect(mid, minX, minY, maxX, maxY, shadowed, out);
+            if (max >= split && out.size() < limit) {
+                within(mid + 1, hi, depth + 1, minX, minY, maxX, maxY, limit, shadowed, out);
+            }
+        }
+
+        private void collect(int i, double minX, double minY, double maxX, double maxY,
+                             Map<Long, ?> shadowed, List<Point> out) {
+            double x = xs[i], y = ys[i];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY
+                    && (shadowed.isEmpty() || !shadowed.containsKey(ids[i]))) {
+                out.add(new Point(ids[i], x, y));
+            }
+        }
+
+        void nearest(double x, double y, Map<Long, ?> shadowed, Neighbours best) {
+            nearest(0, ids.length, 0, x, y, shadowed, best);
+        }
+
+        private void nearest(int lo, int hi, int depth, double x, double y, Map<Long, ?> shadowed, Neighbours best) {
+            if (hi - lo <= LEAF_SIZE) {
+                for (int i = lo; i < hi; i++) offer(i, x, y, shadowed, best);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double diff = ((depth & 1) == 0 ? x : y) - coord(mid, depth);
+            // the side the query point is on first: it tightens the bound that prunes the other side
+            if (diff < 0) nearest(lo, mid, depth + 1, x, y, shadowed, best);
+            else nearest(mid + 1, hi, depth + 1, x, y, shadowed, best);
+            offer(mid, x, y, shadowed, best);
+            if (diff * diff < best.bound()) {
+                if (diff < 0) nearest(mid + 1, hi, depth + 1, x, y, shadowed, best);
+                else nearest(lo, mid, depth + 1, x, y, shadowed, best);
+            }
+        }
+
+        private void offer(int i, double x, double y, Map<Long, ?> shadowed, Neighbours best) {
+            double d = sq(xs[i] - x) + sq(ys[i] - y);
+            if (d < best.bound() && (shadowed.isEmpty() || !shadowed.containsKey(ids[i]))) {
+                best.offer(ids[i], xs[i], ys[i], d);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface PointSink {
+        void add(long id, double x, double y);
+    }
+
+    /** Bounded max-heap of the k closest points seen so far, keyed by squared distance. */
+    static final class Neighbours {
+        private final int k;
+        private final long[] ids;
+        private final double[] xs;
+        private final double[] ys;
+        private final double[] dist;
+        private int size;
+
+        Neighbours(int k) {
+            this.k = k;
+            this.ids = new long[k];
+            this.xs = new double[k];
+            this.ys = new double[k];
+            this.dist = new double[k];
+        }
+
+        /** Squared distance a point must beat to get in. */
+        double bound() {
+            return size < k ? Double.POSITIVE_INFINITY : dist[0];
+        }
+
+        void offer(long id, double x, double y, double d) {
+            if (size < k) {
+                set(size, id, x, y, d);
+                siftUp(size++);
+            } else if (d < dist[0]) {
+                set(0, id, x, y, d);
+                siftDown(0);
+            }
+        }
+
+        private void set(int i, long id, double x, double y, double d) {
+            ids[i] = id; xs[i] = x; ys[i] = y; dist[i] = d;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (dist[parent] >= dist[i]) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, largest = i;
+                if (l < size && dist[l] > dist[largest]) largest = l;
+                if (r < size && dist[r] > dist[largest]) largest = r;
+                if (largest == i) return;
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+            double x = xs[a]; xs[a] = xs[b]; xs[b] = x;
+            double y = ys[a]; ys[a] = ys[b]; ys[b] = y;
+            double d = dist[a]; dist[a] = dist[b]; dist[b] = d;
+        }
+
+        List<Point> sorted() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> dist[i]).thenComparingLong(i -> ids[i]));
+            List<Point> out = new ArrayList<>(size);
+            for (int i : order) out.add(new Point(ids[i], xs[i], ys[i]));
+            return out;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.savadanko.service;
+
+import com.savadanko.exceptions.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * In-process spatial indexes of locations and coordinates behind the nearest/within queries.
+ * <p>
+ * Both are loaded from the database when the application is ready and reloaded on
+ * {@code app.spatial.resync-cron}, which also picks up writes made by other instances. Local writes
+ * reach the index through the hooks below once their transaction commits, so a rolled back write
+ * never shows up in query results.
+ */
+@Service
+public class SpatialIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpatialIndexService.class);
+
+    private static final int FETCH_SIZE = 10_000;
+
+    enum Kind { LOCATION, COORDINATES }
+
+    /** A null {@code x} means the row is gone. */
+    record PointChanged(Kind kind, Long id, Double x, Double y) {}
+
+    private final SpatialIndex locations = new SpatialIndex("locations");
+    private final SpatialIndex coordinates = new SpatialIndex("coordinates");
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+
+    public SpatialIndexService(JdbcTemplate jdbc, ApplicationEventPublisher events) {
+        this.jdbc = jdbc;
+        this.events = events;
+    }
+
+    public void onLocationSaved(Long id, double x, double y) {
+        events.publishEvent(new PointChanged(Kind.LOCATION, id, x, y));
+    }
+
+    public void onLocationDeleted(Long id) {
+        events.publishEvent(new PointChanged(Kind.LOCATION, id, null, null));
+    }
+
+    public void onCoordinatesSaved(Long id, float x, float y) {
+        events.publishEvent(new PointChanged(Kind.COORDINATES, id, (double) x, (double) y));
+    }
+
+    public void onCoordinatesDeleted(Long id) {
+        events.publishEvent(new PointChanged(Kind.COORDINATES, id, null, null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommitted(PointChanged change) {
+        SpatialIndex index = change.kind() == Kind.LOCATION ? locations : coordinates;
+        if (change.x() == null) index.remove(change.id());
+        else index.put(change.id(), change.x(), change.y());
+    }
+
+    List<SpatialIndex.Point> nearestLocations(double x, double y, int limit) {
+        return ready(locations).nearest(x, y, limit);
+    }
+
+    List<SpatialIndex.Point> coordinatesWithin(double minX, double minY, double maxX, double maxY, int limit) {
+        return ready(coordinates).within(minX, minY, maxX, maxY, limit);
+    }
+
+    private static SpatialIndex ready(SpatialIndex index) {
+        if (!index.isReady()) throw new ServiceUnavailableException("Spatial index is loading, retry later");
+        return index;
+    }
+
+    /** After the read model backfill; the queries answer 503 until this has run once. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(3)
+    @Scheduled(cron = "${app.spatial.resync-cron:0 */10 * * * *}")
+    // not read-only: a replica could miss writes whose overlay entries the new tree then drops;
+    // the transaction is still needed for the fetch size to stream instead of buffering every row
+    @Transactional
+    public void reload() {
+        long started = System.nanoTime();
+        int locationCount = load(locations, "select id, x, y from location");
+        int coordinatesCount = load(coordinates, "select id, x, y from coordinates");
+        log.info("Spatial indexes loaded: {} locations, {} coordinates in {} ms",
+                locationCount, coordinatesCount, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int load(SpatialIndex index, String sql) {
+        int[] count = new int[1];
+        index.reload(builder -> {
+            RowCallbackHandler addRow = rs -> builder.add(rs.getLong(1), rs.getDouble(2), rs.getDouble(3));
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, addRow);
+            count[0] = builder.size();
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,11 @@
+-- Columns added after the tables were first generated by ddl-auto: update. On such a database V1
+-- skips the existing tables, so they are added here; on a database V1 created this is a no-op.
+
+alter table location    add column if not exists version bigint default 0 not null;
+alter table coordinates add column if not exists version bigint default 0 not null;
+alter table discipline  add column if not exists version bigint default 0 not null;
+alter table person      add column if not exists version bigint default 0 not null;
+alter table lab_work    add column if not exists version bigint default 0 not null;
+
+-- filled in from difficulty on startup (LabWorkService.backfillDifficultyRank)
+alter table lab_work add column if not exists difficulty_rank integer default 0 not null;
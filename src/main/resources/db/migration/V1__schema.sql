@@ -0,0 +1,87 @@
+-- Tables as Hibernate generated them under ddl-auto: update. "if not exists" lets a database
+-- created that way be adopted in place (spring.flyway.baseline-version 0 runs this script too).
+
+create table if not exists location (
+    id      bigint generated by default as identity primary key,
+    version bigint default 0 not null,
+    x       double precision not null,
+    y       integer not null,
+    name    varchar(255) not null
+);
+
+create table if not exists coordinates (
+    id      bigint generated by default as identity primary key,
+    version bigint default 0 not null,
+    x       real not null,
+    y       real not null
+);
+
+create table if not exists discipline (
+    id             bigint generated by default as identity primary key,
+    version        bigint default 0 not null,
+    name           varchar(255) not null,
+    practice_hours bigint not null,
+    labs_count     bigint not null
+);
+
+create table if not exists person (
+    id          bigint generated by default as identity primary key,
+    version     bigint default 0 not null,
+    name        varchar(255) not null,
+    eye_color   varchar(255) check (eye_color in ('GREEN', 'RED', 'WHITE', 'BROWN')),
+    hair_color  varchar(255) not null check (hair_color in ('GREEN', 'RED', 'WHITE', 'BROWN')),
+    weight      double precision not null,
+    nationality varchar(255) check (nationality in ('UNITED_KINGDOM', 'GERMANY', 'INDIA')),
+    location_id bigint references location
+);
+
+create table if not exists lab_work (
+    id              bigint generated by default as identity primary key,
+    version         bigint default 0 not null,
+    name            varchar(255) not null,
+    coordinates_id  bigint not null references coordinates,
+    creation_date   timestamp(6) with time zone not null,
+    description     varchar(7529),
+    difficulty      varchar(255) not null check (difficulty in ('VERY_EASY', 'EASY', 'INSANE', 'HOPELESS')),
+    difficulty_rank integer default 0 not null,
+    minimal_point   bigint not null,
+    author_id       bigint references person,
+    discipline_id   bigint references discipline
+);
+
+-- denormalized list/sort/filter read model, one row per lab work (LabWorkReadModelService)
+create table if not exists lab_work_row (
+    id              bigint primary key
+        constraint fk_lab_work_row_lab_work references lab_work on delete cascade,
+    name            varchar(255) not null,
+    description     varchar(7529),
+    difficulty      varchar(255) not null check (difficulty in ('VERY_EASY', 'EASY', 'INSANE', 'HOPELESS')),
+    difficulty_rank integer not null,
+    minimal_point   bigint not null,
+    creation_date   timestamp(6) with time zone not null,
+    coordinates_id  bigint not null,
+    coordinates_x   real,
+    coordinates_y   real not null,
+    author_id       bigint,
+    author_name     varchar(255),
+    discipline_id   bigint,
+    discipline_name varchar(255)
+);
+
+-- running totals behind the special operations (LabWorkStatsService)
+create table if not exists lab_work_summary (
+    id                integer primary key,
+    minimal_point_sum bigint not null,
+    lab_work_count    bigint not null
+);
+
+create table if not exists author_lab_work_count (
+    author_id      bigint primary key,
+    lab_work_count bigint not null
+);
+
+-- list ETags (CollectionVersionService)
+create table if not exists collection_version (
+    name    varchar(255) primary key,
+    version bigint not null
+);
@@ -0,0 +1,27 @@
+-- PostgreSQL indexes neither side of a foreign key, so every referencing column gets one: they
+-- serve the guarded deletes (deleteIfUnreferenced) and the foreign key checks behind them.
+create index if not exists idx_lab_work_coordinates_id on lab_work (coordinates_id);
+create index if not exists idx_lab_work_author_id on lab_work (author_id);
+create index if not exists idx_lab_work_discipline_id on lab_work (discipline_id);
+create index if not exists idx_person_location_id on person (location_id);
+
+-- special operations: delete/count by minimal_point (chunked delete jobs included), hardest lab works
+create index if not exists idx_lab_work_minimal_point_id on lab_work (minimal_point, id);
+create index if not exists idx_lab_work_hardest on lab_work (difficulty_rank, minimal_point, id);
+
+create index if not exists idx_person_name on person (name);
+create index if not exists idx_discipline_name on discipline (name);
+
+-- read model: keyset order of each sortable column, exact-match filters, rename fan-out
+create index if not exists idx_lab_work_row_name_id on lab_work_row (name, id);
+create index if not exists idx_lab_work_row_minimal_point_id on lab_work_row (minimal_point, id);
+create index if not exists idx_lab_work_row_creation_date_id on lab_work_row (creation_date, id);
+create index if not exists idx_lab_work_row_hardest on lab_work_row (difficulty_rank, minimal_point, id);
+create index if not exists idx_lab_work_row_discipline_hardest
+    on lab_work_row (discipline_id, difficulty_rank, minimal_point, id);
+create index if not exists idx_lab_work_row_author_name on lab_work_row (author_name);
+create index if not exists idx_lab_work_row_discipline_name on lab_work_row (discipline_name);
+create index if not exists idx_lab_work_row_author_id on lab_work_row (author_id);
+create index if not exists idx_lab_work_row_coordinates_id on lab_work_row (coordinates_id);
+-- description is only ever matched exactly and can exceed the ~2.7 kB a btree entry may hold
+create index if not exists idx_lab_work_row_description on lab_work_row using hash (description);
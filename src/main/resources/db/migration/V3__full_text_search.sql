@@ -0,0 +1,10 @@
+-- Full-text search over lab_work.name (weight A) and lab_work.description (weight B).
+-- A stored generated column follows every write, JPA or the JDBC bulk import alike.
+-- The russian configuration stems Cyrillic words with russian_stem and Latin ones with english_stem.
+alter table lab_work add column if not exists search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('russian', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) stored;
+
+create index if not exists idx_lab_work_search on lab_work using gin (search_vector);
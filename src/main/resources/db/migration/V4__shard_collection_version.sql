@@ -0,0 +1,5 @@
+-- Each entity type's counter is spread over shard rows (CollectionVersionService.SHARDS): writers
+-- bump one at random instead of all queueing on a single row; the list ETag reads their sum.
+alter table collection_version add column if not exists shard integer default 0 not null;
+alter table collection_version drop constraint if exists collection_version_pkey;
+alter table collection_version add primary key (name, shard);
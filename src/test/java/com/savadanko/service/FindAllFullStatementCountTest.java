@@ -0,0 +1,112 @@
+package com.savadanko.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.savadanko.domain.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The full-tree lists must load in a fixed number of statements whatever the row count: a lazy
+ * association touched while mapping turns into one extra query per row and fails here.
+ */
+@DataJpaTest(properties = {
+        // the migrations are PostgreSQL-only; the entity @Index annotations mirror them for H2
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        // a warm second-level cache would hide the queries a cold one costs
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({LabWorkService.class, LabWorkMapper.class, PersonService.class})
+class FindAllFullStatementCountTest {
+
+    // one fetch-join select each
+    private static final long MAX_STATEMENTS = 1;
+
+    @MockitoBean ObjectMapper objectMapper;
+    @MockitoBean LabWorkStatsService stats;
+    @MockitoBean CollectionVersionService collectionVersions;
+    @MockitoBean LabWorkReadModelService readModel;
+    @MockitoBean MergePatch mergePatch;
+    @MockitoBean SpatialIndexService spatial;
+    @MockitoBean EntityCacheLocks cacheLocks;
+
+    @Autowired TestEntityManager em;
+    @Autowired LabWorkService labWorks;
+    @Autowired PersonService persons;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 200})
+    void labWorksFindAllFull(int rows) {
+        seed(rows);
+        assertThat(statements(labWorks::findAllFull, rows)).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 200})
+    void personsFindAllFull(int rows) {
+        seed(rows);
+        assertThat(statements(persons::findAllFull, rows)).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private long statements(Supplier<? extends List<?>> query, int expectedSize) {
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(query.get()).hasSize(expectedSize);
+        return statistics.getPrepareStatementCount();
+    }
+
+    /** Every LabWork gets its own author, location, discipline and coordinates, so nothing is shared. */
+    private void seed(int rows) {
+        for (int i = 0; i < rows; i++) {
+            Location location = new Location();
+            location.setName("location " + i);
+            location.setX((double) i);
+            location.setY(i);
+            em.persist(location);
+
+            Person author = new Person();
+            author.setName("person " + i);
+            author.setHairColor(Color.values()[i % Color.values().length]);
+            author.setWeight(60.0 + i);
+            author.setLocation(location);
+            em.persist(author);
+
+            Discipline discipline = new Discipline();
+            discipline.setName("discipline " + i);
+            discipline.setPracticeHours(10L);
+            discipline.setLabsCount(5L);
+            em.persist(discipline);
+
+            Coordinates coordinates = new Coordinates();
+            coordinates.setX((float) i);
+            coordinates.setY(i);
+            em.persist(coordinates);
+
+            LabWork lw = new LabWork();
+            lw.setName("lab " + i);
+            lw.setCoordinates(coordinates);
+            lw.setDifficulty(Difficulty.values()[i % Difficulty.values().length]);
+            lw.setMinimalPoint(1L + i);
+            lw.setAuthor(author);
+            lw.setDiscipline(discipline);
+            em.persist(lw);
+        }
+        // the services have to read from the database, not from this session
+        em.flush();
+        em.clear();
+    }
+}
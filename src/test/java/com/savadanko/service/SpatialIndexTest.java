@@ -0,0 +1,165 @@
+package com.savadanko.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Whatever mix of tree and overlay holds the points, {@code within} and {@code nearest} must answer what
+ * a linear scan over the written points answers.
+ */
+class SpatialIndexTest {
+
+    private static final double SIDE = 1_000;
+
+    private final SpatialIndex index = new SpatialIndex("test");
+    // what was written last per id, the reference the scans run over
+    private final Map<Long, SpatialIndex.Point> written = new HashMap<>();
+    private final Random rnd = new Random(42);
+
+    @Test
+    void matchesScanAfterReload() {
+        for (long id = 1; id <= 5_000; id++) written.put(id, randomPoint(id));
+        reloadFromWritten();
+
+        assertThat(index.isReady()).isTrue();
+        assertMatchesScan();
+    }
+
+    @Test
+    void duplicateCoordinates() {
+        // a handful of positions shared by thousands of ids: equal keys on both sides of every split
+        for (long id = 1; id <= 3_000; id++) written.put(id, new SpatialIndex.Point(id, rnd.nextInt(4), rnd.nextInt(4)));
+        reloadFromWritten();
+
+        assertMatchesScan();
+        // boxes that hold a shared position only on their edges
+        assertWithin(1, 1, 1, 1);
+        assertWithin(0, 0, 1, 3);
+        assertWithin(2, 0, 3, 0);
+        assertNearest(1.5, 1.5, 1_000);
+    }
+
+    @Test
+    void overlayShadowsRemovedAndUpdatedTreePoints() {
+        for (long id = 1; id <= 5_000; id++) written.put(id, randomPoint(id));
+        reloadFromWritten();
+        // below MAX_OVERLAY, so everything stays in the overlay
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + rnd.nextInt(5_000);
+            if (rnd.nextBoolean()) remove(id);
+            else put(id);
+        }
+        for (long id = 5_001; id <= 5_200; id++) put(id);
+
+        assertMatchesScan();
+        index.compact();
+        assertMatchesScan();
+    }
+
+    @Test
+    void writesDuringCompactionSurvive() throws InterruptedException {
+        for (long id = 1; id <= 20_000; id++) written.put(id, randomPoint(id));
+        reloadFromWritten();
+
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread compactor = Thread.ofPlatform().start(() -> {
+            while (!stop.get()) index.compact();
+        });
+        try {
+            // updates, removals and inserts, past MAX_OVERLAY so the index schedules compactions of its own
+            for (int i = 0; i < 30_000; i++) {
+                long id = 1 + rnd.nextInt(25_000);
+                if (rnd.nextInt(4) == 0) remove(id);
+                else put(id);
+            }
+        } finally {
+            stop.set(true);
+            compactor.join();
+        }
+
+        assertMatchesScan();
+        index.compact();
+        assertMatchesScan();
+    }
+
+    @Test
+    void writesDuringReloadSurvive() {
+        for (long id = 1; id <= 5_000; id++) written.put(id, randomPoint(id));
+        Map<Long, SpatialIndex.Point> snapshot = new HashMap<>(written);
+
+        index.reload(builder -> {
+            snapshot.values().forEach(p -> builder.add(p.id(), p.x(), p.y()));
+            // the table was read before these landed: the overlay has to keep them
+            for (long id = 1; id <= 200; id++) remove(id);
+            for (long id = 201; id <= 400; id++) put(id);
+            for (long id = 5_001; id <= 5_100; id++) put(id);
+        });
+
+        assertMatchesScan();
+    }
+
+    private void put(long id) {
+        SpatialIndex.Point p = randomPoint(id);
+        index.put(id, p.x(), p.y());
+        written.put(id, p);
+    }
+
+    private void remove(long id) {
+        index.remove(id);
+        written.remove(id);
+    }
+
+    private void reloadFromWritten() {
+        index.reload(builder -> written.values().forEach(p -> builder.add(p.id(), p.x(), p.y())));
+    }
+
+    private SpatialIndex.Point randomPoint(long id) {
+        return new SpatialIndex.Point(id, rnd.nextDouble() * SIDE, rnd.nextDouble() * SIDE);
+    }
+
+    private void assertMatchesScan() {
+        for (int i = 0; i < 50; i++) {
+            double x1 = rnd.nextDouble() * SIDE, x2 = rnd.nextDouble() * SIDE;
+            double y1 = rnd.nextDouble() * SIDE, y2 = rnd.nextDouble() * SIDE;
+            assertWithin(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+        }
+        assertWithin(0, 0, SIDE, SIDE);
+        for (int k : new int[]{1, 10, 100}) {
+            for (int i = 0; i < 20; i++) assertNearest(rnd.nextDouble() * SIDE, rnd.nextDouble() * SIDE, k);
+        }
+        assertNearest(SIDE / 2, SIDE / 2, written.size() + 10);
+    }
+
+    private void assertWithin(double minX, double minY, double maxX, double maxY) {
+        List<SpatialIndex.Point> inBox = written.values().stream()
+                .filter(p -> p.x() >= minX && p.x() <= maxX && p.y() >= minY && p.y() <= maxY)
+                .toList();
+        assertThat(index.within(minX, minY, maxX, maxY, Integer.MAX_VALUE)).containsExactlyInAnyOrderElementsOf(inBox);
+
+        List<SpatialIndex.Point> limited = index.within(minX, minY, maxX, maxY, 10);
+        assertThat(limited).hasSize(Math.min(10, inBox.size()));
+        assertThat(limited).doesNotHaveDuplicates().isSubsetOf(inBox);
+    }
+
+    /** Ties make the ids ambiguous, so the distances are compared and every hit must be a written point. */
+    private void assertNearest(double x, double y, int k) {
+        List<Double> closest = written.values().stream()
+                .map(p -> distance(p, x, y))
+                .sorted()
+                .limit(k)
+                .toList();
+
+        List<SpatialIndex.Point> found = index.nearest(x, y, k);
+        assertThat(found).doesNotHaveDuplicates().isSubsetOf(written.values());
+        assertThat(found.stream().map(p -> distance(p, x, y)).toList()).isEqualTo(closest);
+    }
+
+    private static double distance(SpatialIndex.Point p, double x, double y) {
+        double dx = p.x() - x, dy = p.y() - y;
+        return dx * dx + dy * dy;
+    }
+}